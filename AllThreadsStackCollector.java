@@ -0,0 +1,150 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.xdebugger.frame.XExecutionStack;
+import com.intellij.xdebugger.frame.XSuspendContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collects the stacks of every thread in a suspend context.
+ *
+ * Threads are enumerated through computeExecutionStacks, then each thread's frames are collected
+ * with a {@link PagedStackCollector} (locations only, no function text). At most
+ * {@code maxInFlight} threads are being collected at once, and a global frame budget is split
+ * evenly across threads, so a JVM with thousands of threads yields a bounded result. Threads
+ * beyond the budget are still listed, without frames. A thread whose frames do not arrive within
+ * THREAD_TIMEOUT_MS is listed with what it had so far, and its slot goes to the next thread.
+ * Nothing here blocks the calling thread.
+ */
+public final class AllThreadsStackCollector {
+
+    private static final Logger logger = Logger.getInstance(AllThreadsStackCollector.class);
+
+    public static final int DEFAULT_FRAME_BUDGET = 2000;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+    private static final int MIN_FRAMES_PER_THREAD = 3;
+    static final long THREAD_TIMEOUT_MS = 1000;
+
+    private final XSuspendContext suspendContext;
+    private final Project project;
+    private final int frameBudget;
+    private final int maxFramesPerThread;
+    private final ConcurrencyWindow window;
+    private final Consumer<ContextItem> callback;
+
+    private final List<XExecutionStack> stacks = new ArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    public AllThreadsStackCollector(@NotNull XSuspendContext suspendContext, @NotNull Project project, int frameBudget,
+                                    int maxFramesPerThread, int maxInFlight, @NotNull Consumer<ContextItem> callback) {
+        this.suspendContext = suspendContext;
+        this.project = project;
+        this.frameBudget = frameBudget;
+        this.maxFramesPerThread = maxFramesPerThread;
+        this.window = new ConcurrencyWindow(maxInFlight);
+        this.callback = callback;
+    }
+
+    public void start() {
+        try {
+            suspendContext.computeExecutionStacks(new XSuspendContext.XExecutionStackContainer() {
+                @Override
+                public void addExecutionStacks(@NotNull List<? extends XExecutionStack> executionStacks, boolean last) {
+                    synchronized (stacks) { stacks.addAll(executionStacks); }
+                    if (last) collectAll();
+                }
+                @Override public void errorOccurred(@NotNull String errorMessage) {
+                    logger.debug("computeExecutionStacks error: " + errorMessage);
+                    collectAll();
+                }
+            });
+        } catch (Throwable t) {
+            logger.warn("Unable to enumerate execution stacks: " + t.getMessage());
+            collectAll();
+        }
+    }
+
+    private void collectAll() {
+        if (!started.compareAndSet(false, true)) return;
+        List<XExecutionStack> threads;
+        synchronized (stacks) { threads = new ArrayList<>(stacks); }
+        XExecutionStack active = null;
+        try { active = suspendContext.getActiveExecutionStack(); } catch (Throwable ignored) {}
+        // Collect the active thread first so it never loses its share to the budget
+        if (active != null && threads.remove(active)) threads.add(0, active);
+
+        int count = threads.size();
+        ThreadStacksResult result = new ThreadStacksResult();
+        result.setTotalThreads(count);
+        if (count == 0) {
+            callback.accept(new ContextItem(result, false, ContextItem.Type.THREADS));
+            return;
+        }
+
+        int share = Math.max(MIN_FRAMES_PER_THREAD, Math.min(maxFramesPerThread, frameBudget / count));
+        AtomicInteger remainingFrames = new AtomicInteger(frameBudget);
+        AtomicInteger pending = new AtomicInteger(count);
+        AtomicInteger overBudget = new AtomicInteger();
+        ThreadStack[] slots = new ThreadStack[count];
+
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            XExecutionStack stack = threads.get(i);
+            boolean isActive = stack == active;
+            String name = displayName(stack);
+            int before = remainingFrames.getAndUpdate(r -> Math.max(0, r - share));
+            int allotment = Math.min(share, before);
+            if (allotment <= 0) {
+                slots[index] = new ThreadStack(name, isActive, Collections.emptyList(), false);
+                overBudget.incrementAndGet();
+                if (pending.decrementAndGet() == 0) emit(result, slots, overBudget.get());
+                continue;
+            }
+            window.submit(done -> {
+                PagedStackCollector[] collector = new PagedStackCollector[1];
+                ScheduledFuture<?>[] deadline = new ScheduledFuture<?>[1];
+                collector[0] = new PagedStackCollector(stack, project, allotment, allotment, null, item -> {
+                    synchronized (deadline) { if (deadline[0] != null) deadline[0].cancel(false); }
+                    @SuppressWarnings("unchecked")
+                    List<StackItem> frames = (List<StackItem>) item.getData();
+                    slots[index] = new ThreadStack(name, isActive, frames, collector[0].reachedBottom());
+                    done.run();
+                    if (pending.decrementAndGet() == 0) emit(result, slots, overBudget.get());
+                }).withoutFunctionText();
+                // A thread whose debugger never answers must not hold its slot or the final callback;
+                // finish() reports the frames collected so far, at most once
+                synchronized (deadline) {
+                    deadline[0] = AppExecutorUtil.getAppScheduledExecutorService()
+                            .schedule(() -> collector[0].finish(), THREAD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                }
+                collector[0].start(allotment);
+            });
+        }
+    }
+
+    private void emit(ThreadStacksResult result, ThreadStack[] slots, int overBudget) {
+        int frames = 0;
+        for (ThreadStack slot : slots) {
+            result.getThreads().add(slot);
+            frames += slot.getFrames().size();
+        }
+        result.setFramesCollected(frames);
+        result.setThreadsOverBudget(overBudget);
+        callback.accept(new ContextItem(result, true, ContextItem.Type.THREADS));
+    }
+
+    private static String displayName(XExecutionStack stack) {
+        try { return stack.getDisplayName(); } catch (Throwable t) { return "<unknown thread>"; }
+    }
+}
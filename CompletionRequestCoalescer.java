@@ -0,0 +1,111 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces breakpoint-condition completion requests per editor.
+ *
+ * A request is held for a short debounce window before it is sent; a newer request for the same
+ * editor supersedes it. Requests with the same key share one server call, whether they arrive while
+ * the call is pending or in flight, and every waiting completion session receives the same response.
+ */
+public final class CompletionRequestCoalescer {
+
+    private static final Logger logger = Logger.getInstance(CompletionRequestCoalescer.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+
+    private final long debounceMillis;
+    private final Map<Editor, EditorSlot> slots = ContainerUtil.createConcurrentWeakMap();
+
+    public CompletionRequestCoalescer() { this(DEFAULT_DEBOUNCE_MILLIS); }
+
+    public CompletionRequestCoalescer(long debounceMillis) {
+        this.debounceMillis = Math.max(0, debounceMillis);
+    }
+
+    /**
+     * Submits a request for {@code editor}. The returned future completes with the server response,
+     * or with an empty list if the request was superseded by a newer one before it was sent.
+     */
+    @NotNull
+    public CompletableFuture<List<String>> submit(@Nullable Editor editor, @NotNull String requestKey,
+                                                  @NotNull Supplier<List<String>> fetcher) {
+        if (editor == null) return CompletableFuture.supplyAsync(() -> safeFetch(fetcher), AppExecutorUtil.getAppExecutorService());
+
+        EditorSlot slot = slots.computeIfAbsent(editor, e -> new EditorSlot());
+        synchronized (slot) {
+            CompletableFuture<List<String>> inFlight = slot.inFlight.get(requestKey);
+            if (inFlight != null) return inFlight;
+
+            PendingRequest pending = slot.pending;
+            if (pending != null) {
+                if (pending.key.equals(requestKey)) return pending.future;
+                pending.timer.cancel(false);
+                pending.future.complete(Collections.emptyList());
+            }
+
+            PendingRequest request = new PendingRequest(requestKey, fetcher);
+            request.timer = AppExecutorUtil.getAppScheduledExecutorService()
+                    .schedule(() -> dispatch(slot, request), debounceMillis, TimeUnit.MILLISECONDS);
+            slot.pending = request;
+            return request.future;
+        }
+    }
+
+    private void dispatch(EditorSlot slot, PendingRequest request) {
+        synchronized (slot) {
+            if (slot.pending != request) return;
+            slot.pending = null;
+            slot.inFlight.put(request.key, request.future);
+        }
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            try {
+                request.future.complete(safeFetch(request.fetcher));
+            } finally {
+                synchronized (slot) { slot.inFlight.remove(request.key, request.future); }
+            }
+        });
+    }
+
+    private static List<String> safeFetch(Supplier<List<String>> fetcher) {
+        try {
+            List<String> response = fetcher.get();
+            return response != null ? response : Collections.emptyList();
+        } catch (Throwable t) {
+            logger.warn("[DEBUG] Completion request failed: " + t.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private static final class EditorSlot {
+        PendingRequest pending;
+        final Map<String, CompletableFuture<List<String>>> inFlight = new HashMap<>();
+    }
+
+    private static final class PendingRequest {
+        final String key;
+        final Supplier<List<String>> fetcher;
+        final CompletableFuture<List<String>> future = new CompletableFuture<>();
+        ScheduledFuture<?> timer;
+
+        PendingRequest(String key, Supplier<List<String>> fetcher) {
+            this.key = key;
+            this.fetcher = fetcher;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Bounds the number of asynchronous debugger requests in flight without blocking any thread.
+ *
+ * A task is started immediately when a slot is free and queued otherwise. Each task receives a
+ * completion callback that it must run exactly once; running it frees the slot and starts the
+ * next queued task. Tasks are started on whichever thread frees the slot, which for debugger
+ * callbacks is the debugger thread itself, so tasks must not block.
+ */
+public final class ConcurrencyWindow {
+
+    private static final Logger logger = Logger.getInstance(ConcurrencyWindow.class);
+
+    private static final ThreadLocal<ArrayDeque<Runnable>> DRAINING = new ThreadLocal<>();
+
+    private final int maxInFlight;
+    private final ArrayDeque<Consumer<Runnable>> queued = new ArrayDeque<>();
+    private int inFlight;
+
+    public ConcurrencyWindow(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public void submit(@NotNull Consumer<Runnable> task) {
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                queued.add(task);
+                return;
+            }
+            inFlight++;
+        }
+        start(task);
+    }
+
+    public synchronized int getInFlight() { return inFlight; }
+
+    public synchronized int getQueued() { return queued.size(); }
+
+    private void start(Consumer<Runnable> task) {
+        Runnable done = new Runnable() {
+            private boolean released;
+            @Override public void run() {
+                synchronized (this) {
+                    if (released) return;
+                    released = true;
+                }
+                release();
+            }
+        };
+        try {
+            task.accept(done);
+        } catch (Throwable t) {
+            logger.warn("ConcurrencyWindow task failed: " + t.getMessage());
+            done.run();
+        }
+    }
+
+    private void release() {
+        Consumer<Runnable> next;
+        synchronized (this) {
+            next = queued.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // Tasks that complete synchronously would otherwise recurse once per queued task
+        ArrayDeque<Runnable> draining = DRAINING.get();
+        if (draining != null) {
+            draining.add(() -> start(next));
+            return;
+        }
+        draining = new ArrayDeque<>();
+        DRAINING.set(draining);
+        try {
+            start(next);
+            Runnable pending;
+            while ((pending = draining.poll()) != null) pending.run();
+        } finally {
+            DRAINING.remove();
+        }
+    }
+}
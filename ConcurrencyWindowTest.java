@@ -0,0 +1,88 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrencyWindowTest {
+
+    @Test
+    public void tasksBeyondTheLimitAreQueued() {
+        ConcurrencyWindow window = new ConcurrencyWindow(2);
+        List<Runnable> held = new ArrayList<>();
+        for (int i = 0; i < 5; i++) window.submit(held::add);
+
+        assertEquals(2, held.size());
+        assertEquals(2, window.getInFlight());
+        assertEquals(3, window.getQueued());
+    }
+
+    @Test
+    public void completingATaskStartsTheNextQueuedOne() {
+        ConcurrencyWindow window = new ConcurrencyWindow(2);
+        List<Runnable> held = new ArrayList<>();
+        for (int i = 0; i < 5; i++) window.submit(held::add);
+
+        held.get(0).run();
+
+        assertEquals(3, held.size());
+        assertEquals(2, window.getInFlight());
+        assertEquals(2, window.getQueued());
+    }
+
+    @Test
+    public void completionCallbackReleasesItsSlotOnlyOnce() {
+        ConcurrencyWindow window = new ConcurrencyWindow(2);
+        List<Runnable> held = new ArrayList<>();
+        for (int i = 0; i < 3; i++) window.submit(held::add);
+
+        held.get(0).run();
+        held.get(0).run();
+
+        assertEquals(3, held.size());
+        assertEquals(2, window.getInFlight());
+    }
+
+    @Test
+    public void failingTaskFreesItsSlot() {
+        ConcurrencyWindow window = new ConcurrencyWindow(1);
+        window.submit(done -> { throw new IllegalStateException("boom"); });
+
+        assertEquals(0, window.getInFlight());
+    }
+
+    @Test
+    public void synchronousTasksDrainWithoutDeepRecursion() {
+        ConcurrencyWindow window = new ConcurrencyWindow(1);
+        List<Runnable> held = new ArrayList<>();
+        window.submit(held::add);
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 100_000; i++) {
+            window.submit(done -> {
+                ran.incrementAndGet();
+                done.run();
+            });
+        }
+
+        held.get(0).run();
+
+        assertEquals(100_000, ran.get());
+        assertEquals(0, window.getInFlight());
+        assertEquals(0, window.getQueued());
+    }
+
+    @Test
+    public void limitBelowOneIsTreatedAsOne() {
+        ConcurrencyWindow window = new ConcurrencyWindow(0);
+        List<Runnable> held = new ArrayList<>();
+        window.submit(held::add);
+        window.submit(held::add);
+
+        assertEquals(1, held.size());
+        assertEquals(1, window.getQueued());
+    }
+}
@@ -0,0 +1,50 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ContentionReport {
+
+    public static class Deadlock {
+        private final List<String> threads = new ArrayList<>();
+        private final List<String> monitors = new ArrayList<>();
+
+        // threads.get(i) waits for monitors.get(i), which is owned by threads.get(i + 1) (wrapping around)
+        public List<String> getThreads() { return threads; }
+        public List<String> getMonitors() { return monitors; }
+    }
+
+    public static class HotSpot {
+        private final String monitor;
+        private final String owner;
+        private final String ownerLocation;
+        private final int waiterCount;
+        private final List<String> waiters = new ArrayList<>();
+
+        public HotSpot(String monitor, String owner, String ownerLocation, int waiterCount) {
+            this.monitor = monitor;
+            this.owner = owner;
+            this.ownerLocation = ownerLocation;
+            this.waiterCount = waiterCount;
+        }
+
+        public String getMonitor() { return monitor; }
+        public String getOwner() { return owner; }
+        public String getOwnerLocation() { return ownerLocation; }
+        // Capped sample of the waiting threads; getWaiterCount() is the real total
+        public List<String> getWaiters() { return waiters; }
+        public int getWaiterCount() { return waiterCount; }
+    }
+
+    private final List<Deadlock> deadlocks = new ArrayList<>();
+    private final List<HotSpot> hotSpots = new ArrayList<>();
+    private int threadsInspected;
+
+    public List<Deadlock> getDeadlocks() { return deadlocks; }
+
+    // Ordered by waiter count, most contended first
+    public List<HotSpot> getHotSpots() { return hotSpots; }
+
+    public int getThreadsInspected() { return threadsInspected; }
+    public void setThreadsInspected(int threadsInspected) { this.threadsInspected = threadsInspected; }
+}
@@ -0,0 +1,26 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.List;
+
+public class DebugContextBundle {
+    private ExceptionDetail exception;
+    private List<SnapshotItem> snapshot;
+    private String fingerprint;
+
+    public DebugContextBundle(ExceptionDetail exception, List<SnapshotItem> snapshot, String fingerprint) {
+        this.exception = exception;
+        this.snapshot = snapshot;
+        this.fingerprint = fingerprint;
+    }
+
+    // Null when the pause was not caused by an exception
+    public ExceptionDetail getException() { return exception; }
+    public void setException(ExceptionDetail exception) { this.exception = exception; }
+
+    public List<SnapshotItem> getSnapshot() { return snapshot; }
+    public void setSnapshot(List<SnapshotItem> snapshot) { this.snapshot = snapshot; }
+
+    // Fingerprint of the exception, used for dedupe and history; null when there is no exception
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+}
@@ -0,0 +1,420 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Shared text renderer for collected debug context (snapshot, per-frame snapshots, call stack,
+ * thread dump, lock contention, exception).
+ *
+ * The formats are tuned to keep LLM payloads small:
+ * 1) INDENTED   — "name: value" lines, two spaces per nesting level.
+ * 2) YAML       — YAML-like "- name: value" lists, with the type as a trailing comment.
+ * 3) PATH_VALUE — one "a.b.c=value" line per node, no indentation at all.
+ *
+ * Byte and token budgets are enforced while writing: rendering stops at the first line that
+ * does not fit and a truncation marker is appended; room for the marker is reserved, so the
+ * output never exceeds the budget. Tokens are not counted: the token budget is approximated as
+ * maxTokens * BYTES_PER_TOKEN bytes, and the smaller of the two byte limits applies. Each render
+ * uses a single StringBuilder.
+ */
+public final class DebugContextRenderer {
+
+    public enum Format { INDENTED, YAML, PATH_VALUE }
+
+    public static final int DEFAULT_MAX_BYTES = 16 * 1024;
+    public static final int DEFAULT_MAX_TOKENS = 4 * 1024;
+
+    /** Rough bytes-per-token ratio that turns the token budget into a byte limit. */
+    private static final int BYTES_PER_TOKEN = 4;
+    private static final String TRUNCATED_MARKER = "...[truncated]";
+    /** The marker line including its newline; ASCII, so chars equal bytes. */
+    private static final int MARKER_BYTES = TRUNCATED_MARKER.length() + 1;
+
+    private static final String[] INDENTS = new String[32];
+    static {
+        for (int i = 0; i < INDENTS.length; i++) INDENTS[i] = "  ".repeat(i);
+    }
+
+    private final Format format;
+    private final int maxBytes;
+    private final int maxTokens;
+    private final SnapshotSkipRules skipRules;
+
+    public DebugContextRenderer(@NotNull Format format, int maxBytes, int maxTokens) {
+        this(format, maxBytes, maxTokens, SnapshotSkipRules.defaults());
+    }
+
+    public DebugContextRenderer(@NotNull Format format, int maxBytes, int maxTokens, @NotNull SnapshotSkipRules skipRules) {
+        this.format = format;
+        this.maxBytes = maxBytes;
+        this.maxTokens = maxTokens;
+        this.skipRules = skipRules;
+    }
+
+    public static DebugContextRenderer indented() {
+        return new DebugContextRenderer(Format.INDENTED, DEFAULT_MAX_BYTES, DEFAULT_MAX_TOKENS);
+    }
+
+    public Format getFormat() { return format; }
+
+    // ---------------- Snapshot ----------------
+
+    /**
+     * Renders the snapshot tree iteratively (explicit stack, no recursion), so arbitrarily deep
+     * trees cannot overflow the thread stack. Stops walking as soon as the budget is spent.
+     */
+    @NotNull
+    public String renderSnapshot(@Nullable List<SnapshotItem> items) {
+        if (items == null || items.isEmpty()) return "";
+        Budget out = newBudget();
+        appendSnapshot(out, items, 0, null);
+        return out.finish();
+    }
+
+    /** Renders per-frame snapshots in stack order, each under a header naming the frame location. */
+    @NotNull
+    public String renderFrameSnapshots(@Nullable List<FrameSnapshot> frames) {
+        if (frames == null || frames.isEmpty()) return "";
+        Budget out = newBudget();
+        for (FrameSnapshot frame : frames) {
+            String suffix = frame.isTruncated() ? " (truncated)" : "";
+            boolean ok;
+            switch (format) {
+                case YAML: ok = out.line("- frame: " + frame.getFrameIndex()) && out.line("  at: " + frame.getLocation() + suffix)
+                        && out.line("  variables:"); break;
+                case PATH_VALUE: ok = out.line("frame[" + frame.getFrameIndex() + "]=" + frame.getLocation() + suffix); break;
+                default: ok = out.line("#" + frame.getFrameIndex() + " " + frame.getLocation() + suffix);
+            }
+            if (!ok || !appendSnapshot(out, frame.getVariables(), format == Format.YAML ? 2 : 1,
+                    format == Format.PATH_VALUE ? "frame[" + frame.getFrameIndex() + "]" : null)) break;
+        }
+        return out.finish();
+    }
+
+    /**
+     * Appends a snapshot tree starting at {@code baseDepth}; false once the budget is spent. The
+     * explicit stack holds one cursor per open child list, not one entry per item, so leaves
+     * (most of a flat snapshot) are rendered without any allocation.
+     */
+    private boolean appendSnapshot(Budget out, @Nullable List<SnapshotItem> items, int baseDepth, @Nullable String basePath) {
+        if (items == null) return true;
+        ArrayDeque<Level> open = new ArrayDeque<>();
+        open.push(new Level(items, baseDepth, null, basePath));
+
+        while (!open.isEmpty()) {
+            Level level = open.peek();
+            if (level.next >= level.items.size()) { open.pop(); continue; }
+            SnapshotItem item = level.items.get(level.next++);
+            if (skipRules.shouldSkip(level.parentType, item.getName())) continue;
+            if (!appendSnapshotLine(out, item, level.depth, level.parentPath)) return false;
+
+            List<SnapshotItem> children = item.getChildren();
+            if (children == null || children.isEmpty()) continue;
+            String path = format == Format.PATH_VALUE ? level.pathOf(item) : null;
+            open.push(new Level(children, level.depth + 1, item.getType(), path));
+        }
+        return true;
+    }
+
+    private boolean appendSnapshotLine(Budget out, SnapshotItem item, int depth, @Nullable String parentPath) {
+        int mark = out.mark();
+        StringBuilder sb = out.builder();
+        switch (format) {
+            case YAML:
+                sb.append(indent(depth)).append("- ").append(item.getName()).append(": ").append(item.getValue());
+                String type = item.getType();
+                if (type != null && !"unknown".equals(type)) sb.append("  # ").append(type);
+                break;
+            case PATH_VALUE:
+                if (parentPath != null) sb.append(parentPath).append('.');
+                sb.append(item.getName()).append('=').append(item.getValue());
+                break;
+            default:
+                sb.append(indent(depth)).append(item.getName()).append(": ").append(item.getValue());
+        }
+        return out.endLine(mark);
+    }
+
+    /** One list of siblings being rendered, with the position of the next item. */
+    private static final class Level {
+        final List<SnapshotItem> items;
+        final int depth;
+        final String parentType;
+        final String parentPath;
+        int next;
+
+        Level(List<SnapshotItem> items, int depth, String parentType, String parentPath) {
+            this.items = items;
+            this.depth = depth;
+            this.parentType = parentType;
+            this.parentPath = parentPath;
+        }
+
+        String pathOf(SnapshotItem item) { return parentPath == null ? item.getName() : parentPath + "." + item.getName(); }
+    }
+
+    // ---------------- Call Stack ----------------
+
+    @NotNull
+    public String renderStack(@Nullable List<StackItem> items) {
+        if (items == null || items.isEmpty()) return "";
+        Budget out = newBudget();
+        for (int i = 0; i < items.size(); i++) {
+            StackItem item = items.get(i);
+            String location = item.getFilePath() + ":" + item.getLine();
+            String function = item.getFunction() != null ? item.getFunction() : "";
+            boolean ok;
+            switch (format) {
+                case YAML:
+                    ok = out.line("- at: " + location) && appendBlock(out, "  function: |", "    ", function);
+                    break;
+                case PATH_VALUE:
+                    ok = out.line("stack[" + i + "]=" + location)
+                            && (function.isEmpty() || out.line("stack[" + i + "].function=" + escapeNewlines(function)));
+                    break;
+                default:
+                    ok = out.line("#" + i + " " + location) && appendBlock(out, null, "  ", function);
+            }
+            if (!ok) break;
+        }
+        return out.finish();
+    }
+
+    // ---------------- Thread Dump ----------------
+
+    /** Renders grouped thread stacks; folded recursion is shown as "xN" after the frame. */
+    @NotNull
+    public String renderThreadDump(@Nullable ThreadDumpSummary summary) {
+        if (summary == null || summary.getGroups().isEmpty()) return "";
+        Budget out = newBudget();
+        List<ThreadDumpSummary.Group> groups = summary.getGroups();
+        for (int g = 0; g < groups.size(); g++) {
+            ThreadDumpSummary.Group group = groups.get(g);
+            String names = String.join(", ", group.getThreadNames())
+                    + (group.getThreadCount() > group.getThreadNames().size() ? ", ..." : "");
+            boolean ok;
+            switch (format) {
+                case YAML:
+                    ok = out.line("- threads: " + group.getThreadCount()) && out.line("  names: [" + names + "]")
+                            && out.line("  frames:");
+                    break;
+                case PATH_VALUE:
+                    ok = out.line("group[" + g + "].threads=" + group.getThreadCount())
+                            && out.line("group[" + g + "].names=" + names);
+                    break;
+                default:
+                    ok = out.line("[" + group.getThreadCount() + " threads] " + names);
+            }
+            List<ThreadDumpSummary.FoldedFrame> frames = group.getFrames();
+            for (int i = 0; ok && i < frames.size(); i++) {
+                ThreadDumpSummary.FoldedFrame frame = frames.get(i);
+                String location = frame.getFrame().getFilePath() + ":" + frame.getFrame().getLine()
+                        + (frame.getRepeat() > 1 ? " x" + frame.getRepeat() : "");
+                switch (format) {
+                    case YAML: ok = out.line("    - " + location); break;
+                    case PATH_VALUE: ok = out.line("group[" + g + "].frame[" + i + "]=" + location); break;
+                    default: ok = out.line("  " + location);
+                }
+            }
+            if (!ok) break;
+        }
+        return out.finish();
+    }
+
+    // ---------------- Lock Contention ----------------
+
+    @NotNull
+    public String renderContention(@Nullable ContentionReport report) {
+        if (report == null || (report.getDeadlocks().isEmpty() && report.getHotSpots().isEmpty())) return "";
+        Budget out = newBudget();
+        boolean ok = true;
+        for (int d = 0; ok && d < report.getDeadlocks().size(); d++) {
+            ContentionReport.Deadlock deadlock = report.getDeadlocks().get(d);
+            StringBuilder cycle = new StringBuilder();
+            for (int i = 0; i < deadlock.getThreads().size(); i++) {
+                cycle.append(deadlock.getThreads().get(i)).append(" -[").append(deadlock.getMonitors().get(i)).append("]-> ");
+            }
+            cycle.append(deadlock.getThreads().get(0));
+            switch (format) {
+                case YAML: ok = out.line("- deadlock: " + cycle); break;
+                case PATH_VALUE: ok = out.line("deadlock[" + d + "]=" + cycle); break;
+                default: ok = out.line("DEADLOCK " + cycle);
+            }
+        }
+        for (int h = 0; ok && h < report.getHotSpots().size(); h++) {
+            ContentionReport.HotSpot spot = report.getHotSpots().get(h);
+            String owner = spot.getOwner() + (spot.getOwnerLocation().isEmpty() ? "" : " at " + spot.getOwnerLocation());
+            String waiters = String.join(", ", spot.getWaiters())
+                    + (spot.getWaiterCount() > spot.getWaiters().size() ? ", ..." : "");
+            switch (format) {
+                case YAML:
+                    ok = out.line("- monitor: " + spot.getMonitor()) && out.line("  owner: " + owner)
+                            && out.line("  waiters: " + spot.getWaiterCount() + " [" + waiters + "]");
+                    break;
+                case PATH_VALUE:
+                    ok = out.line("hotspot[" + h + "].monitor=" + spot.getMonitor()) && out.line("hotspot[" + h + "].owner=" + owner)
+                            && out.line("hotspot[" + h + "].waiters=" + spot.getWaiterCount());
+                    break;
+                default:
+                    ok = out.line(spot.getMonitor() + " held by " + owner + ", " + spot.getWaiterCount() + " waiting: " + waiters);
+            }
+        }
+        return out.finish();
+    }
+
+    // ---------------- Exception ----------------
+
+    @NotNull
+    public String renderException(@Nullable ExceptionDetail detail) {
+        if (detail == null || (detail.getMessage() == null && detail.getStackTrace() == null)) return "";
+        Budget out = newBudget();
+        String location = detail.getFilePath() + ":" + detail.getLineNumber();
+        String trace = detail.getStackTrace() != null ? detail.getStackTrace() : "";
+        ExceptionChain chain = detail.getChain();
+        // The root cause goes right after the header so budget truncation cannot drop it
+        ExceptionChain.Link rootCause = chain != null ? chain.getRootCause() : null;
+        String root = rootCause != null ? rootCause.getType() + ": " + rootCause.getMessage() : null;
+        boolean ok;
+        switch (format) {
+            case YAML:
+                ok = out.line("type: " + detail.getType()) && out.line("message: " + detail.getMessage())
+                        && out.line("at: " + location) && (root == null || out.line("rootCause: " + root))
+                        && appendBlock(out, "trace: |", "  ", trace);
+                break;
+            case PATH_VALUE:
+                ok = out.line("exception.type=" + detail.getType()) && out.line("exception.message=" + escapeNewlines(detail.getMessage()))
+                        && out.line("exception.at=" + location) && (root == null || out.line("exception.rootCause=" + escapeNewlines(root)))
+                        && (trace.isEmpty() || out.line("exception.trace=" + escapeNewlines(trace)));
+                break;
+            default:
+                ok = out.line(detail.getType() + ": " + detail.getMessage()) && out.line("at " + location)
+                        && (root == null || out.line("root cause: " + root)) && appendBlock(out, null, "  ", trace);
+        }
+        if (ok && chain != null) appendChain(out, chain);
+        return out.finish();
+    }
+
+    private boolean appendChain(Budget out, ExceptionChain chain) {
+        List<ExceptionChain.Link> links = chain.getLinks();
+        if (format == Format.YAML && !out.line("chain:")) return false;
+        for (int i = 0; i < links.size(); i++) {
+            ExceptionChain.Link link = links.get(i);
+            String label = link.getRelation() == ExceptionChain.Relation.CAUSE ? "Caused by"
+                    : link.getRelation() == ExceptionChain.Relation.SUPPRESSED ? "Suppressed" : "During handling of";
+            String header = label + ": " + link.getType() + ": " + link.getMessage();
+            boolean ok;
+            switch (format) {
+                case YAML:
+                    ok = out.line("  - " + header);
+                    for (int f = 0; ok && f < link.getFrames().size(); f++) ok = out.line("      " + link.getFrames().get(f));
+                    break;
+                case PATH_VALUE:
+                    ok = out.line("exception.chain[" + i + "]=" + escapeNewlines(header));
+                    for (int f = 0; ok && f < link.getFrames().size(); f++) ok = out.line("exception.chain[" + i + "].frame[" + f + "]=" + link.getFrames().get(f));
+                    break;
+                default:
+                    ok = out.line(indent(link.getDepth() - 1) + header);
+                    for (int f = 0; ok && f < link.getFrames().size(); f++) ok = out.line(indent(link.getDepth()) + link.getFrames().get(f));
+            }
+            if (!ok) return false;
+        }
+        return !chain.isTruncated() || out.line(format == Format.PATH_VALUE ? "exception.chain.truncated=true" : "...");
+    }
+
+    // ---------------- Helpers ----------------
+
+    private Budget newBudget() { return new Budget(maxBytes, maxTokens); }
+
+    private static boolean appendBlock(Budget out, @Nullable String header, String indent, String text) {
+        if (text == null || text.isEmpty()) return true;
+        if (header != null && !out.line(header)) return false;
+        int start = 0;
+        while (start <= text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) end = text.length();
+            if (end > start && !out.line(indent + text.substring(start, end).stripTrailing())) return false;
+            start = end + 1;
+        }
+        return true;
+    }
+
+    private static String indent(int depth) {
+        return depth < INDENTS.length ? INDENTS[depth] : "  ".repeat(depth);
+    }
+
+    private static String escapeNewlines(@Nullable String s) {
+        return s == null ? "null" : s.replace("\n", "\\n");
+    }
+
+    /** Single-builder output that refuses lines once the byte or token budget is spent. */
+    private static final class Budget {
+        private final StringBuilder sb = new StringBuilder(256);
+        private final int maxBytes;
+        /** Bytes available to content lines; the rest is kept for the truncation marker. */
+        private final int lineBytes;
+        private int bytes;
+        private int countedUpTo;
+        private boolean truncated;
+
+        Budget(int maxBytes, int maxTokens) {
+            this.maxBytes = (int) Math.min(maxBytes, (long) maxTokens * BYTES_PER_TOKEN);
+            this.lineBytes = Math.max(0, this.maxBytes - MARKER_BYTES);
+        }
+
+        StringBuilder builder() { return sb; }
+
+        int mark() { return truncated ? -1 : sb.length(); }
+
+        /** Accepts the text appended since {@code mark} as one line, or rolls it back if it does not fit. */
+        boolean endLine(int mark) {
+            if (mark < 0) return false;
+            int end = sb.length();
+            // UTF-8 needs at most 3 bytes per char; only count exactly once that bound could exceed the budget
+            if (bytes + (long) (end - countedUpTo) * 3 + 1 > lineBytes) {
+                bytes += utf8Length(sb, countedUpTo, mark);
+                int length = utf8Length(sb, mark, end) + 1;
+                if (bytes + length > lineBytes) {
+                    sb.setLength(mark);
+                    truncated = true;
+                    if (bytes + MARKER_BYTES <= maxBytes) sb.append(TRUNCATED_MARKER).append('\n');
+                    return false;
+                }
+                bytes += length;
+                sb.append('\n');
+                countedUpTo = sb.length();
+                return true;
+            }
+            sb.append('\n');
+            return true;
+        }
+
+        boolean line(String line) {
+            int mark = mark();
+            if (mark >= 0) sb.append(line);
+            return endLine(mark);
+        }
+
+        String finish() {
+            int len = sb.length();
+            while (len > 0 && sb.charAt(len - 1) == '\n') len--;
+            sb.setLength(len);
+            return sb.toString();
+        }
+
+        private static int utf8Length(CharSequence s, int from, int to) {
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) n++;
+                else if (c < 0x800) n += 2;
+                else if (Character.isHighSurrogate(c)) { n += 4; i++; }
+                else n += 3;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DebugContextRendererTest {
+
+    private static final String MARKER = "...[truncated]";
+
+    @Test
+    public void snapshotWithinBudgetIsRenderedWhole() {
+        String text = DebugContextRenderer.indented().renderSnapshot(Arrays.asList(
+                leaf("a", "int", "1"),
+                node("b", "Point", "{...}", leaf("x", "int", "2"), leaf("y", "int", "3"))));
+
+        assertEquals("a: 1\nb: {...}\n  x: 2\n  y: 3", text);
+    }
+
+    @Test
+    public void byteBudgetIsNeverExceededAndEndsWithMarker() {
+        for (int maxBytes = 16; maxBytes <= 200; maxBytes++) {
+            DebugContextRenderer renderer = new DebugContextRenderer(DebugContextRenderer.Format.INDENTED, maxBytes, 1_000_000);
+            String text = renderer.renderSnapshot(manyLeaves(100));
+
+            assertTrue("budget " + maxBytes, bytes(text) <= maxBytes);
+            assertTrue("budget " + maxBytes, text.endsWith(MARKER));
+        }
+    }
+
+    @Test
+    public void multiByteValuesAreCountedInUtf8() {
+        List<SnapshotItem> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) items.add(leaf("s" + i, "String", "\u00e9\u00e9\u4e2d\u4e2d"));
+        DebugContextRenderer renderer = new DebugContextRenderer(DebugContextRenderer.Format.INDENTED, 100, 1_000_000);
+
+        String text = renderer.renderSnapshot(items);
+
+        assertTrue(bytes(text) <= 100);
+        assertTrue(text.endsWith(MARKER));
+    }
+
+    @Test
+    public void tokenBudgetAppliesWhenSmallerThanByteBudget() {
+        DebugContextRenderer renderer = new DebugContextRenderer(DebugContextRenderer.Format.INDENTED, 16 * 1024, 10);
+
+        String text = renderer.renderSnapshot(manyLeaves(100));
+
+        assertTrue(bytes(text) <= 40);
+        assertTrue(text.endsWith(MARKER));
+    }
+
+    @Test
+    public void deepTreeDoesNotOverflowTheStack() {
+        SnapshotItem root = leaf("n0", "Node", "{...}");
+        SnapshotItem current = root;
+        for (int i = 1; i < 20_000; i++) {
+            SnapshotItem child = leaf("n" + i, "Node", "{...}");
+            current.setChildren(new ArrayList<>(Collections.singletonList(child)));
+            current = child;
+        }
+
+        String text = DebugContextRenderer.indented().renderSnapshot(Collections.singletonList(root));
+
+        assertTrue(text.startsWith("n0: {...}\n  n1: {...}"));
+        assertTrue(text.endsWith(MARKER));
+    }
+
+    @Test
+    public void pathValueFormatJoinsNamesWithDots() {
+        DebugContextRenderer renderer = new DebugContextRenderer(DebugContextRenderer.Format.PATH_VALUE, 1024, 1024);
+
+        String text = renderer.renderSnapshot(Collections.singletonList(
+                node("p", "Point", "{...}", leaf("x", "int", "2"))));
+
+        assertEquals("p={...}\np.x=2", text);
+    }
+
+    @Test
+    public void stringInternalsAreSkippedByDefault() {
+        String text = DebugContextRenderer.indented().renderSnapshot(Collections.singletonList(
+                node("s", "java.lang.String", "\"hi\"", leaf("value", "byte[]", "[104, 105]"), leaf("hash", "int", "0"))));
+
+        assertEquals("s: \"hi\"", text);
+    }
+
+    @Test
+    public void skipRulesApplyGloballyOrPerParentType() {
+        SnapshotSkipRules rules = SnapshotSkipRules.none().skipEverywhere("this$0").skipForType("Point", "cache");
+
+        assertTrue(rules.shouldSkip(null, "this$0"));
+        assertTrue(rules.shouldSkip("Anything", "this$0"));
+        assertTrue(rules.shouldSkip("Point", "cache"));
+        assertFalse(rules.shouldSkip("Line", "cache"));
+        assertFalse(rules.shouldSkip(null, "cache"));
+        assertFalse(rules.shouldSkip("Point", null));
+    }
+
+    @Test
+    public void customSkipRulesReplaceTheDefaults() {
+        DebugContextRenderer renderer = new DebugContextRenderer(DebugContextRenderer.Format.INDENTED, 1024, 1024,
+                SnapshotSkipRules.none().skipEverywhere("b"));
+
+        String text = renderer.renderSnapshot(Arrays.asList(
+                leaf("a", "int", "1"), leaf("b", "int", "2"), node("s", "String", "\"x\"", leaf("hash", "int", "0"))));
+
+        assertEquals("a: 1\ns: \"x\"\n  hash: 0", text);
+    }
+
+    @Test
+    public void stackIsCutAtTheBudgetWithMarker() {
+        List<StackItem> stack = new ArrayList<>();
+        for (int i = 0; i < 50; i++) stack.add(new StackItem("/src/Main.java", i, "void f" + i + "() {\n  g();\n}", "java"));
+        DebugContextRenderer renderer = new DebugContextRenderer(DebugContextRenderer.Format.INDENTED, 120, 1_000_000);
+
+        String text = renderer.renderStack(stack);
+
+        assertTrue(text.startsWith("#0 /src/Main.java:0\n  void f0() {\n    g();\n  }"));
+        assertTrue(bytes(text) <= 120);
+        assertTrue(text.endsWith(MARKER));
+    }
+
+    private static List<SnapshotItem> manyLeaves(int count) {
+        List<SnapshotItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) items.add(leaf("field" + i, "int", String.valueOf(i)));
+        return items;
+    }
+
+    private static SnapshotItem leaf(String name, String type, String value) {
+        return new SnapshotItem(name, type, value, new ArrayList<>());
+    }
+
+    private static SnapshotItem node(String name, String type, String value, SnapshotItem... children) {
+        return new SnapshotItem(name, type, value, new ArrayList<>(Arrays.asList(children)));
+    }
+
+    private static int bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,83 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.execution.ui.RunContentDescriptor;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.XDebugSessionListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps live debug sessions to their {@link DebugSessionState}, which names the DebugAttacher that
+ * handles them.
+ *
+ * Keys are held weakly and the map is safe for concurrent use from debugger threads and the EDT.
+ * An entry is removed when its session stops or when the session's run content is disposed,
+ * whichever comes first; a session for which neither happens is still released once it is
+ * garbage collected, so the registry never keeps a session alive. Values must not refer to their
+ * session, or the weak key would never be released.
+ */
+public final class DebugSessionRegistry {
+
+    private static final Logger logger = Logger.getInstance(DebugSessionRegistry.class);
+
+    private static final Map<XDebugSession, DebugSessionState> sessions = ContainerUtil.createConcurrentWeakMap();
+
+    private DebugSessionRegistry() {}
+
+    /** Registers {@code session} once; later calls return the state created by the first. */
+    @NotNull
+    public static DebugSessionState register(@NotNull XDebugSession session, @NotNull DebugAttacher attacher) {
+        DebugSessionState created = new DebugSessionState(attacher);
+        DebugSessionState existing = sessions.putIfAbsent(session, created);
+        if (existing != null) return existing;
+        session.addSessionListener(new XDebugSessionListener() {
+            @Override public void sessionStopped() { unregister(session); }
+        });
+        RunContentDescriptor descriptor = session.getRunContentDescriptor();
+        if (descriptor == null) return created;
+        try {
+            Disposer.register(descriptor, () -> unregister(session));
+        } catch (Throwable t) {
+            // Already disposed: the session is gone
+            logger.debug("Run content of " + session.getSessionName() + " already disposed");
+            unregister(session);
+        }
+        return created;
+    }
+
+    public static void unregister(@NotNull XDebugSession session) { sessions.remove(session); }
+
+    @Nullable
+    public static DebugSessionState get(@NotNull XDebugSession session) { return sessions.get(session); }
+
+    /** Registered sessions of {@code project}, stopped ones excluded. */
+    @NotNull
+    public static List<XDebugSession> sessionsOf(@NotNull Project project) {
+        List<XDebugSession> result = new ArrayList<>();
+        for (XDebugSession session : sessions.keySet()) {
+            if (session.getProject() == project && !session.isStopped()) result.add(session);
+        }
+        return result;
+    }
+
+    /** Registered sessions that have not stopped. */
+    public static int getLiveSessionCount() {
+        int live = 0;
+        for (XDebugSession session : sessions.keySet()) if (!session.isStopped()) live++;
+        return live;
+    }
+
+    /**
+     * Number of map entries still held, including stopped sessions whose removal is pending; above
+     * the live count means a missed stop. An entry count, not a memory measure.
+     */
+    public static int getRetainedEntryCount() { return sessions.size(); }
+}
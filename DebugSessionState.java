@@ -0,0 +1,37 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Per-session state kept by {@link DebugSessionRegistry}: the attacher handling the session, its
+ * pause-rate monitor, the fingerprints seen so far and the exception the inlay was last shown for.
+ *
+ * Holds nothing that refers back to the session, so a registry entry never keeps its own weak key
+ * reachable; DebugAttacher is shared by all projects and keeps no per-session fields of its own.
+ */
+public final class DebugSessionState {
+
+    private final DebugAttacher attacher;
+    private final PauseRateMonitor pauseMonitor = new PauseRateMonitor();
+    private final ExceptionSeenSet seenExceptions = new ExceptionSeenSet();
+    private volatile String lastExceptionFingerprint;
+
+    DebugSessionState(@NotNull DebugAttacher attacher) {
+        this.attacher = attacher;
+    }
+
+    @NotNull
+    public DebugAttacher getAttacher() { return attacher; }
+
+    @NotNull
+    public PauseRateMonitor getPauseMonitor() { return pauseMonitor; }
+
+    @NotNull
+    public ExceptionSeenSet getSeenExceptions() { return seenExceptions; }
+
+    @Nullable
+    public String getLastExceptionFingerprint() { return lastExceptionFingerprint; }
+
+    public void setLastExceptionFingerprint(@Nullable String fingerprint) { lastExceptionFingerprint = fingerprint; }
+}
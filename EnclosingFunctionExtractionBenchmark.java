@@ -0,0 +1,72 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.impl.DocumentImpl;
+import com.intellij.openapi.util.TextRange;
+import org.dell.Constants;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Standalone micro-benchmark: EnclosingFunctionExtractor.extractLineWindow vs. the former
+ * split-the-whole-function extraction on synthetic methods of growing size.
+ *
+ * Needs the IntelliJ platform jars on the classpath (for DocumentImpl), e.g.
+ * java -cp "<plugin classes>:<idea>/lib/*" org.samsung.aipp.aippintellij.debugAssist.EnclosingFunctionExtractionBenchmark
+ * Only results from the real DocumentImpl are meaningful: its line index and CharSequence view
+ * are what the window extraction relies on, so a simplified Document gives misleading numbers.
+ */
+public final class EnclosingFunctionExtractionBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    public static void main(String[] args) {
+        for (int lines : new int[] { 50, 5_000, 100_000 }) run(lines);
+    }
+
+    private static void run(int functionLines) {
+        String source = "class Generated {\n" + generatedMethod(functionLines) + "}\n";
+        Document document = new DocumentImpl(source);
+        TextRange range = new TextRange(source.indexOf("    void"), source.lastIndexOf('}'));
+        int targetLine = 1 + functionLines / 2;
+
+        System.out.println("== method of " + functionLines + " lines, " + range.getLength() + " chars");
+        measure("legacy split + clip", () -> legacyExtract(document, range, targetLine));
+        measure("line window", () -> EnclosingFunctionExtractor.extractLineWindow(document, range, targetLine));
+    }
+
+    private static void measure(String label, java.util.function.Supplier<String> extract) {
+        String out = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) out = extract.get();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) out = extract.get();
+        long perOpNanos = (System.nanoTime() - start) / MEASURED_ROUNDS;
+        long perOpBytes = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASURED_ROUNDS;
+        System.out.printf("  %-22s %10d ns/op  %12d B/op  %6d chars%n", label, perOpNanos, perOpBytes, out.length());
+    }
+
+    // ---------------- Baseline: former whole-function split ----------------
+
+    private static String legacyExtract(Document document, TextRange range, int line) {
+        String[] lines = document.getCharsSequence().subSequence(range.getStartOffset(), range.getEndOffset()).toString().split("\n");
+        int targetLineInFunction = line - document.getLineNumber(range.getStartOffset());
+        int prefix = Constants.ENCLOSING_FUNCTION_PREFIX_LINES, suffix = Constants.ENCLOSING_FUNCTION_SUFFIX_LINES;
+        if (lines.length <= prefix + suffix) return String.join("\n", lines);
+        int startLine = Math.max(targetLineInFunction - prefix, 0), endLine = Math.min(targetLineInFunction + suffix, lines.length - 1);
+        StringBuilder clipped = new StringBuilder();
+        for (int i = startLine; i <= endLine; i++) clipped.append(lines[i]).append("\n");
+        return clipped.toString().trim();
+    }
+
+    // ---------------- Synthetic input ----------------
+
+    private static String generatedMethod(int lines) {
+        StringBuilder sb = new StringBuilder("    void generated() {\n");
+        for (int i = 0; i < lines; i++) sb.append("        int v").append(i).append(" = compute(").append(i).append(", \"field_").append(i).append("\");\n");
+        return sb.append("    }\n").toString();
+    }
+}
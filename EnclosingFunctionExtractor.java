@@ -0,0 +1,154 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.dell.Constants;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts the enclosing function text for stack frames off the debugger thread.
+ *
+ * Each extraction runs as a non-blocking read action on a small bounded pool, so frames are
+ * resolved in parallel and a write action simply restarts the read. Function ranges are cached by
+ * (file, document modification stamp, line): frames that repeat across pauses skip the PSI lookup
+ * entirely, and any edit to the file invalidates its entries by stamp. Only the window of lines
+ * around the target is read from the document, so huge functions cost no more than small ones.
+ */
+public final class EnclosingFunctionExtractor {
+
+    private static final Logger logger = Logger.getInstance(EnclosingFunctionExtractor.class);
+
+    private static final EnclosingFunctionExtractor instance = new EnclosingFunctionExtractor();
+
+    private static final int MAX_CACHED_ENTRIES = 512;
+    private static final long EXTRACTION_TIMEOUT_MS = 2000;
+    private static final TextRange NO_FUNCTION = new TextRange(0, 0);
+
+    private final ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+            "DebugAssist Enclosing Function", Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    /** (file, stamp, line) -> enclosing function range, or NO_FUNCTION. */
+    private final Map<LineKey, TextRange> rangeByLine = lruMap();
+
+    private EnclosingFunctionExtractor() {}
+
+    public static EnclosingFunctionExtractor getInstance() { return instance; }
+
+    /**
+     * Resolves the clipped enclosing function for {@code line} (0-based) in the background.
+     * Completes with null when there is no enclosing function, PSI is unavailable or the
+     * extraction does not finish within the timeout; never completes exceptionally.
+     */
+    @NotNull
+    public CompletableFuture<String> extractAsync(@NotNull Project project, @NotNull VirtualFile file, int line) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            ReadAction.nonBlocking(() -> extract(project, file, line))
+                    .expireWith(project)
+                    .submit(executor)
+                    .onSuccess(result::complete)
+                    .onError(t -> {
+                        logger.debug("extractAsync failed: " + t.getMessage());
+                        result.complete(null);
+                    });
+        } catch (Throwable t) {
+            logger.debug("extractAsync could not be scheduled: " + t.getMessage());
+            result.complete(null);
+        }
+        return result.completeOnTimeout(null, EXTRACTION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void clear() { rangeByLine.clear(); }
+
+    // Must be called inside a read action
+    @Nullable
+    private String extract(@NotNull Project project, @NotNull VirtualFile file, int line) {
+        Document document = FileDocumentManager.getInstance().getDocument(file);
+        if (document == null || line >= document.getLineCount()) return null;
+        long stamp = document.getModificationStamp();
+
+        LineKey lineKey = new LineKey(file, stamp, line);
+        TextRange range = rangeByLine.get(lineKey);
+        if (range == null) {
+            range = findEnclosingFunctionRange(project, file, document, line);
+            rangeByLine.put(lineKey, range);
+        }
+        if (range == NO_FUNCTION) return null;
+        return extractLineWindow(document, range, line);
+    }
+
+    /**
+     * Returns the prefix/suffix window of lines around {@code line}, clamped to the function
+     * {@code range}. Offsets come from the document's line index and the text is read through a
+     * CharSequence view, so only the returned window is ever copied into a String.
+     */
+    @NotNull
+    static String extractLineWindow(@NotNull Document document, @NotNull TextRange range, int line) {
+        CharSequence text = document.getCharsSequence();
+        int start = Math.max(0, Math.min(range.getStartOffset(), text.length()));
+        int end = Math.max(start, Math.min(range.getEndOffset(), text.length()));
+        int firstLine = document.getLineNumber(start), lastLine = document.getLineNumber(end);
+
+        int prefix = Constants.ENCLOSING_FUNCTION_PREFIX_LINES, suffix = Constants.ENCLOSING_FUNCTION_SUFFIX_LINES;
+        int from = start, to = end;
+        if (lastLine - firstLine + 1 > prefix + suffix) {
+            int target = Math.max(firstLine, Math.min(line, lastLine));
+            from = Math.max(start, document.getLineStartOffset(Math.max(target - prefix, firstLine)));
+            to = Math.min(end, document.getLineEndOffset(Math.min(target + suffix, lastLine)));
+        }
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        return text.subSequence(from, to).toString();
+    }
+
+    @NotNull
+    private static TextRange findEnclosingFunctionRange(@NotNull Project project, @NotNull VirtualFile file,
+                                                        @NotNull Document document, int line) {
+        try {
+            TextRange range = PsiAccessors.findEnclosingFunctionRange(project, file, document, line);
+            return range != null ? range : NO_FUNCTION;
+        } catch (ProcessCanceledException pce) {
+            throw pce;
+        } catch (Throwable t) {
+            logger.warn("findEnclosingFunctionRange error: " + t.getMessage());
+            return NO_FUNCTION;
+        }
+    }
+
+    private static <K, V> Map<K, V> lruMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<K, V>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<K, V> eldest) { return size() > MAX_CACHED_ENTRIES; }
+        });
+    }
+
+    private static final class LineKey {
+        final VirtualFile file;
+        final long stamp;
+        final int line;
+
+        LineKey(VirtualFile file, long stamp, int line) { this.file = file; this.stamp = stamp; this.line = line; }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof LineKey)) return false;
+            LineKey k = (LineKey) o;
+            return stamp == k.stamp && line == k.line && file.equals(k.file);
+        }
+        @Override public int hashCode() { return Objects.hash(file, stamp, line); }
+    }
+}
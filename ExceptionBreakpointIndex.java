@@ -0,0 +1,82 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.xdebugger.XDebuggerManager;
+import com.intellij.xdebugger.breakpoints.XBreakpoint;
+import com.intellij.xdebugger.breakpoints.XBreakpointListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-project index of Java exception breakpoints, kept current by breakpoint events.
+ *
+ * The breakpoint manager is scanned once when the index is created; afterwards added, removed
+ * and changed events update the set of exception breakpoints and the set of enabled ones, so
+ * "is any exception breakpoint enabled" is a constant-time lookup on every pause. The Java
+ * exception breakpoint type is resolved by name once, which keeps the index loadable in IDEs
+ * without the Java debugger (where it simply stays empty).
+ */
+public final class ExceptionBreakpointIndex implements XBreakpointListener<XBreakpoint<?>> {
+
+    private static final Map<Project, ExceptionBreakpointIndex> indexes = ContainerUtil.createConcurrentWeakMap();
+
+    private final Set<XBreakpoint<?>> exceptionBreakpoints = ConcurrentHashMap.newKeySet();
+    private final Set<XBreakpoint<?>> enabled = ConcurrentHashMap.newKeySet();
+
+    private ExceptionBreakpointIndex() {}
+
+    /** The project's index; created, filled and subscribed on first use, disposed with the project. */
+    @NotNull
+    public static ExceptionBreakpointIndex getInstance(@NotNull Project project) {
+        return indexes.computeIfAbsent(project, p -> {
+            ExceptionBreakpointIndex index = new ExceptionBreakpointIndex();
+            p.getMessageBus().connect(p).subscribe(XBreakpointListener.TOPIC, index);
+            ReadAction.run(() -> {
+                for (XBreakpoint<?> bp : XDebuggerManager.getInstance(p).getBreakpointManager().getAllBreakpoints()) index.update(bp);
+            });
+            return index;
+        });
+    }
+
+    public boolean hasEnabledExceptionBreakpoint() { return !enabled.isEmpty(); }
+
+    @NotNull
+    public List<XBreakpoint<?>> getExceptionBreakpoints() { return new ArrayList<>(exceptionBreakpoints); }
+
+    @Override public void breakpointAdded(@NotNull XBreakpoint<?> breakpoint) { update(breakpoint); }
+
+    @Override public void breakpointChanged(@NotNull XBreakpoint<?> breakpoint) { update(breakpoint); }
+
+    @Override
+    public void breakpointRemoved(@NotNull XBreakpoint<?> breakpoint) {
+        exceptionBreakpoints.remove(breakpoint);
+        enabled.remove(breakpoint);
+    }
+
+    private void update(XBreakpoint<?> breakpoint) {
+        if (!isJavaExceptionBreakpoint(breakpoint)) return;
+        exceptionBreakpoints.add(breakpoint);
+        if (breakpoint.isEnabled()) enabled.add(breakpoint);
+        else enabled.remove(breakpoint);
+    }
+
+    private static boolean isJavaExceptionBreakpoint(XBreakpoint<?> breakpoint) {
+        return Types.JAVA_EXCEPTION != null && Types.JAVA_EXCEPTION.isInstance(breakpoint.getType());
+    }
+
+    /** Resolved once on first use; null when the Java debugger is not installed. */
+    private static final class Types {
+        static final Class<?> JAVA_EXCEPTION = load("com.intellij.debugger.ui.breakpoints.JavaExceptionBreakpointType");
+
+        private static Class<?> load(String name) {
+            try { return Class.forName(name); } catch (Throwable t) { return null; }
+        }
+    }
+}
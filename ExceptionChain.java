@@ -0,0 +1,97 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Causes, suppressed exceptions and Python context exceptions hanging off a collected exception,
+ * in breadth-first order (nearest links first), so trimming from the end drops the deepest ones.
+ */
+public class ExceptionChain {
+
+    public enum Relation { CAUSE, SUPPRESSED, CONTEXT }
+
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_MAX_BYTES = 8 * 1024;
+    public static final int MAX_FRAMES_PER_LINK = 10;
+
+    public static class Link {
+        private final Relation relation;
+        private final int depth;
+        private final String type;
+        private final String message;
+        private final List<ExceptionFrame> frames;
+
+        public Link(Relation relation, int depth, String type, String message, List<ExceptionFrame> frames) {
+            this.relation = relation;
+            this.depth = depth;
+            this.type = type;
+            this.message = message;
+            this.frames = frames;
+        }
+
+        public Relation getRelation() { return relation; }
+        // 1 for a direct cause/suppressed/context of the collected exception
+        public int getDepth() { return depth; }
+        public String getType() { return type; }
+        public String getMessage() { return message; }
+        // Empty when the debugger could not read the link's frames (e.g. a Java stackTrace never materialized)
+        public List<ExceptionFrame> getFrames() { return frames; }
+
+        /** Rough payload size, used for the byte budget. */
+        public int estimatedBytes() {
+            int size = 16 + (type != null ? type.length() : 0) + (message != null ? message.length() : 0);
+            for (ExceptionFrame frame : frames) size += 48 + (frame.getClassName() != null ? frame.getClassName().length() : 0);
+            return size;
+        }
+    }
+
+    private final List<Link> links = new ArrayList<>();
+    private boolean truncated;
+    private boolean cycleDetected;
+
+    public List<Link> getLinks() { return links; }
+
+    // True when the depth or byte budget stopped the walk before the chain ended
+    public boolean isTruncated() { return truncated; }
+    public void setTruncated(boolean truncated) { this.truncated = truncated; }
+
+    // True when a link pointed back to an exception already in the chain
+    public boolean isCycleDetected() { return cycleDetected; }
+    public void setCycleDetected(boolean cycleDetected) { this.cycleDetected = cycleDetected; }
+
+    /** The deepest link reached by following causes (or contexts) only, or null if there is none. */
+    public Link getRootCause() {
+        Link root = null;
+        for (Link link : links) {
+            if (link.relation != Relation.SUPPRESSED && (root == null || link.depth > root.depth)) root = link;
+        }
+        return root;
+    }
+
+    /** Independent copy (links are immutable and shared), so trimming it leaves this chain intact. */
+    public ExceptionChain copy() {
+        ExceptionChain copy = new ExceptionChain();
+        copy.links.addAll(links);
+        copy.truncated = truncated;
+        copy.cycleDetected = cycleDetected;
+        return copy;
+    }
+
+    /**
+     * Drops the deepest links until the estimated size fits {@code maxBytes}. The root cause is
+     * kept as long as it fits on its own, since it is usually the link that matters.
+     */
+    public void trimTo(int maxBytes) {
+        Link rootCause = getRootCause();
+        int total = 0;
+        for (Link link : links) total += link.estimatedBytes();
+        for (int i = links.size() - 1; i >= 0 && total > maxBytes; i--) {
+            Link link = links.get(i);
+            if (link == rootCause && link.estimatedBytes() <= maxBytes) continue;
+            links.remove(i);
+            total -= link.estimatedBytes();
+            truncated = true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExceptionChainTest {
+
+    @Test
+    public void rootCauseIsTheDeepestNonSuppressedLink() {
+        ExceptionChain chain = chain(
+                link(ExceptionChain.Relation.CAUSE, 1, "IOException"),
+                link(ExceptionChain.Relation.SUPPRESSED, 1, "CloseException"),
+                link(ExceptionChain.Relation.CAUSE, 2, "SocketException"),
+                link(ExceptionChain.Relation.SUPPRESSED, 3, "Ignored"));
+
+        assertEquals("SocketException", chain.getRootCause().getType());
+    }
+
+    @Test
+    public void chainOfSuppressedOnlyHasNoRootCause() {
+        assertNull(chain(link(ExceptionChain.Relation.SUPPRESSED, 1, "CloseException")).getRootCause());
+    }
+
+    @Test
+    public void chainWithinBudgetIsLeftAlone() {
+        ExceptionChain chain = chain(link(ExceptionChain.Relation.CAUSE, 1, "A"), link(ExceptionChain.Relation.CAUSE, 2, "B"));
+
+        chain.trimTo(10_000);
+
+        assertEquals(2, chain.getLinks().size());
+        assertFalse(chain.isTruncated());
+    }
+
+    @Test
+    public void trimmingDropsOtherLinksButKeepsTheRootCause() {
+        ExceptionChain.Link root = link(ExceptionChain.Relation.CAUSE, 2, "RootCause");
+        ExceptionChain chain = chain(
+                link(ExceptionChain.Relation.CAUSE, 1, "Wrapper"),
+                link(ExceptionChain.Relation.SUPPRESSED, 1, "CloseException"),
+                root);
+
+        chain.trimTo(root.estimatedBytes());
+
+        assertEquals(1, chain.getLinks().size());
+        assertSame(root, chain.getLinks().get(0));
+        assertTrue(chain.isTruncated());
+    }
+
+    @Test
+    public void rootCauseIsDroppedWhenItCannotFitAlone() {
+        ExceptionChain.Link root = link(ExceptionChain.Relation.CAUSE, 1, "RootCause");
+        ExceptionChain chain = chain(root);
+
+        chain.trimTo(root.estimatedBytes() - 1);
+
+        assertTrue(chain.getLinks().isEmpty());
+        assertTrue(chain.isTruncated());
+    }
+
+    @Test
+    public void trimmingACopyLeavesTheOriginalIntact() {
+        ExceptionChain chain = chain(link(ExceptionChain.Relation.CAUSE, 1, "A"), link(ExceptionChain.Relation.SUPPRESSED, 1, "B"));
+
+        ExceptionChain copy = chain.copy();
+        copy.trimTo(0);
+
+        assertTrue(copy.getLinks().isEmpty());
+        assertEquals(2, chain.getLinks().size());
+        assertFalse(chain.isTruncated());
+    }
+
+    @Test
+    public void renderedExceptionPutsRootCauseRightAfterTheHeader() {
+        ExceptionDetail detail = new ExceptionDetail("wrapped", "java.lang.RuntimeException", "at Main.main(Main.java:3)", "/src/Main.java", 3);
+        detail.setChain(chain(link(ExceptionChain.Relation.CAUSE, 1, "java.io.IOException")));
+
+        String text = DebugContextRenderer.indented().renderException(detail);
+
+        assertTrue(text.startsWith("java.lang.RuntimeException: wrapped\nat /src/Main.java:3\nroot cause: java.io.IOException: message\n"));
+    }
+
+    private static ExceptionChain chain(ExceptionChain.Link... links) {
+        ExceptionChain chain = new ExceptionChain();
+        Collections.addAll(chain.getLinks(), links);
+        return chain;
+    }
+
+    private static ExceptionChain.Link link(ExceptionChain.Relation relation, int depth, String type) {
+        return new ExceptionChain.Link(relation, depth, type, "message", new ArrayList<>());
+    }
+}
@@ -0,0 +1,57 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stable identity of an exception occurrence: a 64-bit FNV-1a hash of the exception type, the
+ * throw site and the top frames, as 16 hex characters. The message is deliberately left out, so
+ * the same failure in a loop with varying data still maps to one fingerprint.
+ */
+public final class ExceptionFingerprint {
+
+    public static final int DEFAULT_TOP_FRAMES = 5;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ExceptionFingerprint() {}
+
+    @NotNull
+    public static String of(@Nullable String type, @Nullable String throwSite, @NotNull List<String> topFrames) {
+        long hash = mix(FNV_OFFSET, type);
+        hash = mix(hash, throwSite);
+        for (String frame : topFrames) hash = mix(hash, frame);
+        return String.format("%016x", hash);
+    }
+
+    /** Fingerprint of a collected exception; uses structured frames when present, else the trace text. */
+    @NotNull
+    public static String of(@NotNull ExceptionDetail detail, int topFrames) {
+        List<String> frames = new ArrayList<>(topFrames);
+        if (detail.getFrames() != null && !detail.getFrames().isEmpty()) {
+            for (int i = 0; i < Math.min(topFrames, detail.getFrames().size()); i++) frames.add(detail.getFrames().get(i).toString());
+        } else if (detail.getStackTrace() != null) {
+            for (String line : detail.getStackTrace().split("\n", topFrames + 1)) {
+                if (frames.size() == topFrames) break;
+                if (!line.isBlank()) frames.add(line.trim());
+            }
+        }
+        return of(detail.getType(), detail.getFilePath() + ":" + detail.getLineNumber(), frames);
+    }
+
+    private static long mix(long hash, @Nullable String part) {
+        if (part != null) {
+            for (int i = 0; i < part.length(); i++) {
+                hash ^= part.charAt(i);
+                hash *= FNV_PRIME;
+            }
+        }
+        // Separator, so ("ab", "c") and ("a", "bc") differ
+        hash ^= 0x1f;
+        return hash * FNV_PRIME;
+    }
+}
@@ -0,0 +1,37 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+public class ExceptionFrame {
+    private String className;
+    private String methodName;
+    private String fileName;
+    private int lineNumber;
+
+    public ExceptionFrame(String className, String methodName, String fileName, int lineNumber) {
+        this.className = className;
+        this.methodName = methodName;
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+    }
+
+    public String getClassName() { return className; }
+    public void setClassName(String className) { this.className = className; }
+
+    public String getMethodName() { return methodName; }
+    public void setMethodName(String methodName) { this.methodName = methodName; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    // Negative when unknown (-2 marks a native method, as in StackTraceElement)
+    public int getLineNumber() { return lineNumber; }
+    public void setLineNumber(int lineNumber) { this.lineNumber = lineNumber; }
+
+    @Override
+    public String toString() {
+        String source = lineNumber == -2 ? "Native Method"
+                : fileName == null ? "Unknown Source"
+                : lineNumber >= 0 ? fileName + ":" + lineNumber : fileName;
+        String qualifier = className == null || className.isEmpty() ? "" : className + ".";
+        return "at " + qualifier + methodName + "(" + source + ")";
+    }
+}
@@ -0,0 +1,75 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ExceptionHistoryEntry {
+    private String fingerprint;
+    private String type;
+    private String message;
+    private List<ExceptionFrame> frames = new ArrayList<>();
+    private String project;
+    private long firstSeen;
+    private long lastSeen;
+    private int hitCount;
+    private String explanation;
+
+    public ExceptionHistoryEntry() {}
+
+    public ExceptionHistoryEntry(String fingerprint, String type, String message, List<ExceptionFrame> frames, String project, long seenAt) {
+        this.fingerprint = fingerprint;
+        this.type = type;
+        this.message = message;
+        if (frames != null) this.frames = new ArrayList<>(frames);
+        this.project = project;
+        this.firstSeen = seenAt;
+        this.lastSeen = seenAt;
+    }
+
+    public ExceptionHistoryEntry(ExceptionHistoryEntry other) {
+        this(other.fingerprint, other.type, other.message, other.frames, other.project, other.firstSeen);
+        this.lastSeen = other.lastSeen;
+        this.hitCount = other.hitCount;
+        this.explanation = other.explanation;
+    }
+
+    // ExceptionFingerprint of type, throw site and top frames
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    // Innermost frame first
+    public List<ExceptionFrame> getFrames() { return frames; }
+    public void setFrames(List<ExceptionFrame> frames) { this.frames = frames; }
+
+    // Name of the project the exception was last seen in
+    public String getProject() { return project; }
+    public void setProject(String project) { this.project = project; }
+
+    // Epoch millis
+    public long getFirstSeen() { return firstSeen; }
+    public void setFirstSeen(long firstSeen) { this.firstSeen = firstSeen; }
+
+    public long getLastSeen() { return lastSeen; }
+    public void setLastSeen(long lastSeen) { this.lastSeen = lastSeen; }
+
+    // Occurrences across all sessions
+    public int getHitCount() { return hitCount; }
+    public void setHitCount(int hitCount) { this.hitCount = hitCount; }
+
+    // Explanation returned by the assistant, null until one was received
+    public String getExplanation() { return explanation; }
+    public void setExplanation(String explanation) { this.explanation = explanation; }
+
+    /** "File.java#method" of the innermost frame, or null when no frame is known. */
+    public String getThrowSite() {
+        if (frames == null || frames.isEmpty()) return null;
+        ExceptionFrame top = frames.get(0);
+        return top.getFileName() + "#" + top.getMethodName();
+    }
+}
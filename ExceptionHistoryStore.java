@@ -0,0 +1,248 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.google.gson.Gson;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Local exception history that survives debug sessions and IDE restarts.
+ *
+ * Every sighting appends the updated entry as one JSON line to a log under the IDE system
+ * directory; on load the last line per fingerprint wins. Entries are indexed in memory by
+ * fingerprint and by throw site (file#method of the innermost frame), so lookups never touch
+ * the disk. Loading, appends and compaction all run on a single background thread in submission
+ * order, the load first. Updates made before the load finished are queued and applied on top of
+ * the loaded entries; lookups in that window see only what is already in memory. Whenever the log
+ * holds {@link #COMPACT_RATIO} times more lines than live entries, and at least
+ * {@link #MIN_COMPACT_LINES}, it is rewritten with one line per entry, at load or after an append.
+ */
+public final class ExceptionHistoryStore {
+
+    private static final Logger logger = Logger.getInstance(ExceptionHistoryStore.class);
+
+    private static final ExceptionHistoryStore instance = new ExceptionHistoryStore();
+
+    private static final int MAX_ENTRIES = 5000;
+    private static final int COMPACT_RATIO = 4;
+    private static final int MIN_COMPACT_LINES = 1000;
+    private static final Gson gson = new Gson();
+
+    private final Path file = Paths.get(PathManager.getSystemPath(), "debugAssist", "exception-history.jsonl");
+    private final ExecutorService writer = AppExecutorUtil.createBoundedApplicationPoolExecutor("DebugAssist Exception History", 1);
+
+    /**
+     * Least recently seen first, so the oldest entries are dropped once MAX_ENTRIES is exceeded.
+     * Insertion ordered: record() moves an entry to the end, lookups leave the order alone.
+     */
+    private final LinkedHashMap<String, ExceptionHistoryEntry> byFingerprint = new LinkedHashMap<String, ExceptionHistoryEntry>(256, 0.75f, false) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, ExceptionHistoryEntry> eldest) {
+            if (size() <= MAX_ENTRIES) return false;
+            unindexSite(eldest.getValue());
+            return true;
+        }
+    };
+    private final Map<String, List<ExceptionHistoryEntry>> bySite = new HashMap<>();
+    /** Updates made before the log was loaded, in order; each returns the entry to append, or null. */
+    private final List<Supplier<ExceptionHistoryEntry>> pendingUpdates = new ArrayList<>();
+    private boolean loaded;
+    /** Lines in the log, counting appends still queued on the writer. */
+    private int logLines;
+
+    private ExceptionHistoryStore() {
+        writer.execute(this::load);
+    }
+
+    public static ExceptionHistoryStore getInstance() { return instance; }
+
+    /** Counts one sighting of {@code detail} and persists it. */
+    public void record(@NotNull String fingerprint, @NotNull ExceptionDetail detail, @Nullable String project) {
+        long now = System.currentTimeMillis();
+        update(() -> {
+            ExceptionHistoryEntry entry = byFingerprint.get(fingerprint);
+            if (entry == null) {
+                entry = new ExceptionHistoryEntry(fingerprint, detail.getType(), detail.getMessage(), detail.getFrames(), project, now);
+                byFingerprint.put(fingerprint, entry);
+                indexSite(entry);
+            } else {
+                entry.setMessage(detail.getMessage());
+                entry.setProject(project);
+                entry.setLastSeen(now);
+                touch(entry);
+            }
+            entry.setHitCount(entry.getHitCount() + 1);
+            return new ExceptionHistoryEntry(entry);
+        });
+    }
+
+    /** Stores the assistant's explanation for a known fingerprint; ignored for unknown ones. */
+    public void setExplanation(@NotNull String fingerprint, @Nullable String explanation) {
+        update(() -> {
+            ExceptionHistoryEntry entry = byFingerprint.get(fingerprint);
+            if (entry == null) return null;
+            entry.setExplanation(explanation);
+            return new ExceptionHistoryEntry(entry);
+        });
+    }
+
+    /** Moves {@code entry} to the most recently seen end. */
+    private void touch(ExceptionHistoryEntry entry) {
+        byFingerprint.remove(entry.getFingerprint());
+        byFingerprint.put(entry.getFingerprint(), entry);
+    }
+
+    /**
+     * Applies {@code change} under the lock and appends its result, or queues it until the log is
+     * loaded. An append that takes the log past the compaction threshold rewrites it instead.
+     */
+    private synchronized void update(Supplier<ExceptionHistoryEntry> change) {
+        if (!loaded) {
+            pendingUpdates.add(change);
+            return;
+        }
+        ExceptionHistoryEntry copy = change.get();
+        if (copy == null) return;
+        logLines++;
+        // Queued under the lock so the writer sees appends and rewrites in the order of the changes
+        List<String> live = compactedLines();
+        if (live != null) writer.execute(() -> rewrite(live));
+        else append(copy);
+    }
+
+    /** One JSON line per live entry when the log has outgrown them, else null. Caller holds the lock. */
+    @Nullable
+    private List<String> compactedLines() {
+        if (logLines < MIN_COMPACT_LINES || logLines <= COMPACT_RATIO * Math.max(1, byFingerprint.size())) return null;
+        List<String> live = new ArrayList<>(byFingerprint.size());
+        for (ExceptionHistoryEntry entry : byFingerprint.values()) live.add(gson.toJson(entry));
+        logLines = live.size();
+        return live;
+    }
+
+    @Nullable
+    public synchronized ExceptionHistoryEntry find(@NotNull String fingerprint) {
+        ExceptionHistoryEntry entry = byFingerprint.get(fingerprint);
+        return entry != null ? new ExceptionHistoryEntry(entry) : null;
+    }
+
+    /** Entries whose innermost frame is {@code method} in {@code fileName}, most recently seen first. */
+    @NotNull
+    public synchronized List<ExceptionHistoryEntry> findByThrowSite(@NotNull String fileName, @NotNull String method) {
+        List<ExceptionHistoryEntry> entries = bySite.get(fileName + "#" + method);
+        if (entries == null) return Collections.emptyList();
+        List<ExceptionHistoryEntry> result = new ArrayList<>();
+        for (ExceptionHistoryEntry entry : entries) result.add(new ExceptionHistoryEntry(entry));
+        result.sort((a, b) -> Long.compare(b.getLastSeen(), a.getLastSeen()));
+        return result;
+    }
+
+    public synchronized int size() {
+        return byFingerprint.size();
+    }
+
+    private void indexSite(ExceptionHistoryEntry entry) {
+        String site = entry.getThrowSite();
+        if (site != null) bySite.computeIfAbsent(site, k -> new ArrayList<>()).add(entry);
+    }
+
+    private void unindexSite(ExceptionHistoryEntry entry) {
+        String site = entry.getThrowSite();
+        List<ExceptionHistoryEntry> entries = site != null ? bySite.get(site) : null;
+        if (entries == null) return;
+        entries.remove(entry);
+        if (entries.isEmpty()) bySite.remove(site);
+    }
+
+    // ---------------- Persistence ----------------
+
+    /** Runs on the writer thread before any append; parses outside the lock, then merges and drains queued updates. */
+    private void load() {
+        List<ExceptionHistoryEntry> read = new ArrayList<>();
+        int lines = 0;
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (line.isEmpty()) continue;
+                    lines++;
+                    try {
+                        ExceptionHistoryEntry entry = gson.fromJson(line, ExceptionHistoryEntry.class);
+                        if (entry != null && entry.getFingerprint() != null) read.add(entry);
+                    } catch (Throwable t) {
+                        logger.debug("Skipping malformed exception history line: " + t.getMessage());
+                    }
+                }
+            } catch (Throwable t) {
+                logger.warn("Unable to read exception history: " + t.getMessage());
+                read.clear();
+                lines = 0;
+            }
+        }
+
+        List<ExceptionHistoryEntry> updated = new ArrayList<>();
+        synchronized (this) {
+            for (ExceptionHistoryEntry entry : read) {
+                ExceptionHistoryEntry previous = byFingerprint.remove(entry.getFingerprint());
+                if (previous != null) unindexSite(previous);
+                byFingerprint.put(entry.getFingerprint(), entry);
+                indexSite(entry);
+            }
+            for (Supplier<ExceptionHistoryEntry> change : pendingUpdates) {
+                ExceptionHistoryEntry copy = change.get();
+                if (copy != null) updated.add(copy);
+            }
+            pendingUpdates.clear();
+            logLines = lines + updated.size();
+            // A rewrite already holds the queued updates, so they are appended only without one
+            List<String> live = compactedLines();
+            if (live != null) writer.execute(() -> rewrite(live));
+            else for (ExceptionHistoryEntry copy : updated) append(copy);
+            loaded = true;
+        }
+    }
+
+    private void append(ExceptionHistoryEntry entry) {
+        String line = gson.toJson(entry);
+        writer.execute(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    out.write(line);
+                    out.newLine();
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to append exception history: " + e.getMessage());
+            }
+        });
+    }
+
+    /** Replaces the log with one line per live entry; the temp file is moved over the log atomically. */
+    private void rewrite(List<String> lines) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Unable to compact exception history: " + e.getMessage());
+        }
+    }
+}
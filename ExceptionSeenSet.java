@@ -0,0 +1,36 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-session record of exception fingerprints with hit counters. Bounded: the least recently
+ * hit fingerprints are forgotten first, so a long session cannot grow it without limit.
+ */
+public final class ExceptionSeenSet {
+
+    private static final int MAX_TRACKED = 1024;
+
+    private final LinkedHashMap<String, int[]> hits = new LinkedHashMap<String, int[]>(64, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) { return size() > MAX_TRACKED; }
+    };
+
+    /** Counts one occurrence and returns the total so far; 1 means first sighting. */
+    public synchronized int recordHit(@NotNull String fingerprint) {
+        int[] count = hits.computeIfAbsent(fingerprint, k -> new int[1]);
+        return ++count[0];
+    }
+
+    public synchronized int getHits(@NotNull String fingerprint) {
+        int[] count = hits.get(fingerprint);
+        return count != null ? count[0] : 0;
+    }
+
+    public synchronized Map<String, Integer> snapshot() {
+        Map<String, Integer> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, int[]> e : hits.entrySet()) copy.put(e.getKey(), e.getValue()[0]);
+        return copy;
+    }
+}
@@ -0,0 +1,31 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.List;
+
+public class FrameSnapshot {
+    private int frameIndex;
+    private String location;
+    private List<SnapshotItem> variables;
+    private boolean truncated;
+
+    public FrameSnapshot(int frameIndex, String location, List<SnapshotItem> variables, boolean truncated) {
+        this.frameIndex = frameIndex;
+        this.location = location;
+        this.variables = variables;
+        this.truncated = truncated;
+    }
+
+    // Distance from the top of the stack; 0 is the frame the debugger stopped in
+    public int getFrameIndex() { return frameIndex; }
+    public void setFrameIndex(int frameIndex) { this.frameIndex = frameIndex; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public List<SnapshotItem> getVariables() { return variables; }
+    public void setVariables(List<SnapshotItem> variables) { this.variables = variables; }
+
+    // True when the frame's share of the node or byte budget cut the snapshot short
+    public boolean isTruncated() { return truncated; }
+    public void setTruncated(boolean truncated) { this.truncated = truncated; }
+}
@@ -0,0 +1,94 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.debugger.engine.JavaValue;
+import com.intellij.debugger.engine.SuspendContextImpl;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.xdebugger.frame.XSuspendContext;
+import com.intellij.xdebugger.frame.XValue;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.StackFrame;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+import com.sun.jdi.event.Event;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.event.ExceptionEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the thrown exception of a Java exception-breakpoint pause without rendering any variable.
+ *
+ * The suspend context keeps the JDI event set that stopped the VM; an ExceptionEvent in it carries
+ * the exception object itself. Frame children are then matched against it by their descriptor's
+ * value, which is already held locally, so no debugger round trip is needed. Only referenced from
+ * the Java debugger path, so PyCharm never loads the JDI classes.
+ */
+final class JavaExceptionLocator {
+
+    private static final Logger logger = Logger.getInstance(JavaExceptionLocator.class);
+
+    private JavaExceptionLocator() {}
+
+    /**
+     * The exception carried by the event that suspended the VM (a JDI ObjectReference, typed as
+     * Object so callers need no JDI types), or null if it was not an exception event.
+     */
+    @Nullable
+    static Object thrownException(@Nullable XSuspendContext suspendContext) {
+        ExceptionEvent event = exceptionEvent(suspendContext);
+        return event != null ? event.exception() : null;
+    }
+
+    @Nullable
+    static ExceptionEvent exceptionEvent(@Nullable XSuspendContext suspendContext) {
+        if (!(suspendContext instanceof SuspendContextImpl)) return null;
+        try {
+            EventSet events = ((SuspendContextImpl) suspendContext).getEventSet();
+            if (events == null) return null;
+            for (Event event : events) {
+                if (event instanceof ExceptionEvent) return (ExceptionEvent) event;
+            }
+        } catch (Throwable t) {
+            logger.debug("Unable to read the suspend event set: " + t.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Fingerprint of the exception that suspended the VM, from the event alone: exception type,
+     * event location and the top frames of the throwing thread. Null for non-exception pauses.
+     */
+    @Nullable
+    static String fingerprint(@Nullable XSuspendContext suspendContext, int topFrames) {
+        ExceptionEvent event = exceptionEvent(suspendContext);
+        if (event == null) return null;
+        try {
+            List<String> frames = new ArrayList<>(topFrames);
+            ThreadReference thread = event.thread();
+            for (StackFrame frame : thread.frames(0, Math.min(topFrames, thread.frameCount()))) frames.add(String.valueOf(frame.location()));
+            return ExceptionFingerprint.of(event.exception().referenceType().name(), String.valueOf(event.location()), frames);
+        } catch (Throwable t) {
+            logger.debug("Unable to fingerprint exception event: " + t.getMessage());
+            return null;
+        }
+    }
+
+    /** The exception object held by a Java variable, or null if {@code value} is not one. */
+    @Nullable
+    static ObjectReference heldObject(XValue value) {
+        if (!(value instanceof JavaValue)) return null;
+        try {
+            Value held = ((JavaValue) value).getDescriptor().getValue();
+            return held instanceof ObjectReference ? (ObjectReference) held : null;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /** True when {@code value} is a Java variable whose current value is {@code exception}. */
+    static boolean holds(XValue value, Object exception) {
+        return exception instanceof ObjectReference && exception.equals(heldObject(value));
+    }
+}
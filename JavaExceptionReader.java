@@ -0,0 +1,274 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.debugger.engine.DebugProcessImpl;
+import com.intellij.debugger.engine.SuspendContextImpl;
+import com.intellij.debugger.engine.events.DebuggerCommandImpl;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.frame.XStackFrame;
+import com.intellij.xdebugger.frame.XSuspendContext;
+import com.intellij.xdebugger.frame.XValue;
+import com.sun.jdi.*;
+import com.sun.jdi.event.ExceptionEvent;
+import org.dell.Constants;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads a Java exception straight from the JVM on the debugger manager thread.
+ *
+ * Type, detailMessage and stackTrace come from one batched getValues call on the Throwable
+ * fields; the StackTraceElement array is fetched in one call and each element's fields in one
+ * more, giving structured frames instead of a rendered array string. Throwable fills stackTrace
+ * lazily, so when the field is still empty and the exception is the one that suspended the VM,
+ * the frames of the throwing thread are used instead. Cause and suppressed links are followed
+ * into an {@link ExceptionChain}. Only referenced from the Java debugger path, so PyCharm never
+ * loads the JDI classes.
+ *
+ * Limitation: a link's frames are read from the same stackTrace field, which the JVM fills only
+ * once something calls getStackTrace or printStackTrace on that exception. Until then the frames
+ * exist only in the VM-internal backtrace, which JDI cannot decode, and no thread fallback
+ * applies to a link, so such links carry type and message with an empty frame list. Filling them
+ * would mean invoking getStackTrace in the debuggee, which this reader deliberately never does.
+ */
+final class JavaExceptionReader {
+
+    private static final Logger logger = Logger.getInstance(JavaExceptionReader.class);
+
+    private static final String THROWABLE = "java.lang.Throwable";
+    private static final String STACK_TRACE_ELEMENT = "java.lang.StackTraceElement";
+
+    private JavaExceptionReader() {}
+
+    /**
+     * Reads the exception that suspended the VM. Returns false, without calling {@code onDetail},
+     * when the pause was not an exception event; otherwise {@code onDetail} receives the detail,
+     * or null if the exception could not be read.
+     */
+    static boolean readThrown(@Nullable XSuspendContext suspendContext, @NotNull XStackFrame frame,
+                              @NotNull Consumer<ExceptionDetail> onDetail) {
+        ExceptionEvent event = JavaExceptionLocator.exceptionEvent(suspendContext);
+        if (event == null) return false;
+        return schedule(suspendContext, event.exception(), event.thread(), frame, onDetail);
+    }
+
+    /** Like {@link #readThrown} for an exception found among the frame's variables. */
+    static boolean readValue(@Nullable XSuspendContext suspendContext, @NotNull XValue value, @NotNull XStackFrame frame,
+                             @NotNull Consumer<ExceptionDetail> onDetail) {
+        ObjectReference exception = JavaExceptionLocator.heldObject(value);
+        if (exception == null) return false;
+        return schedule(suspendContext, exception, null, frame, onDetail);
+    }
+
+    private static boolean schedule(XSuspendContext suspendContext, ObjectReference exception, @Nullable ThreadReference thrower,
+                                    XStackFrame frame, Consumer<ExceptionDetail> onDetail) {
+        if (!(suspendContext instanceof SuspendContextImpl)) return false;
+        DebugProcessImpl process = ((SuspendContextImpl) suspendContext).getDebugProcess();
+        XSourcePosition position = frame.getSourcePosition();
+        String filePath = position != null ? position.getFile().getPath() : "unknown";
+        int line = position != null ? position.getLine() : -1;
+        process.getManagerThread().schedule(new DebuggerCommandImpl() {
+            @Override
+            protected void action() {
+                ExceptionDetail detail = null;
+                try {
+                    detail = read(exception, thrower, filePath, line);
+                } catch (Throwable t) {
+                    logger.debug("Native exception read failed: " + t.getMessage());
+                }
+                onDetail.accept(detail);
+            }
+
+            @Override
+            protected void commandCancelled() { onDetail.accept(null); }
+        });
+        return true;
+    }
+
+    @Nullable
+    private static ExceptionDetail read(ObjectReference exception, @Nullable ThreadReference thrower, String filePath, int line) {
+        ClassType throwable = findThrowable(exception.referenceType());
+        if (throwable == null) return null;
+        ThrowableFields fields = new ThrowableFields(throwable);
+        Snapshot root = fields.read(exception, Constants.MAX_STACKTRACE_LINES);
+        List<ExceptionFrame> frames = root.frames;
+        if (frames.isEmpty() && thrower != null) frames = readThreadFrames(thrower);
+
+        StringBuilder trace = new StringBuilder();
+        for (ExceptionFrame f : frames) trace.append(f).append('\n');
+        ExceptionDetail detail = new ExceptionDetail(root.message, exception.referenceType().name(), trace.toString().trim(), filePath, line);
+        detail.setFrames(frames);
+        ExceptionChain chain = readChain(exception, root, fields, ExceptionChain.DEFAULT_MAX_DEPTH, ExceptionChain.DEFAULT_MAX_BYTES);
+        if (!chain.getLinks().isEmpty()) detail.setChain(chain);
+        return detail;
+    }
+
+    /**
+     * Breadth-first walk over cause and suppressed links, one batched getValues per link. Stops at
+     * {@code maxDepth} or once {@code maxBytes} is spent; exceptions already visited (by JDI unique
+     * id) are not followed again, which also ends self-referencing and cyclic chains. Link frames
+     * are empty unless the debuggee already materialized that exception's stackTrace.
+     */
+    private static ExceptionChain readChain(ObjectReference exception, Snapshot root, ThrowableFields fields, int maxDepth, int maxBytes) {
+        ExceptionChain chain = new ExceptionChain();
+        Set<Long> visited = new HashSet<>();
+        visited.add(exception.uniqueID());
+        ArrayDeque<Pending> queue = new ArrayDeque<>();
+        enqueueLinks(root, 1, queue);
+        int bytes = 0;
+        while (!queue.isEmpty()) {
+            Pending next = queue.poll();
+            if (!visited.add(next.ref.uniqueID())) { chain.setCycleDetected(true); continue; }
+            if (next.depth > maxDepth || bytes >= maxBytes) { chain.setTruncated(true); break; }
+            Snapshot snapshot = fields.read(next.ref, ExceptionChain.MAX_FRAMES_PER_LINK);
+            ExceptionChain.Link link = new ExceptionChain.Link(next.relation, next.depth, next.ref.referenceType().name(),
+                    snapshot.message, snapshot.frames);
+            chain.getLinks().add(link);
+            bytes += link.estimatedBytes();
+            enqueueLinks(snapshot, next.depth + 1, queue);
+        }
+        return chain;
+    }
+
+    private static void enqueueLinks(Snapshot snapshot, int depth, ArrayDeque<Pending> queue) {
+        if (snapshot.cause != null) queue.add(new Pending(snapshot.cause, ExceptionChain.Relation.CAUSE, depth));
+        for (ObjectReference suppressed : snapshot.suppressed) queue.add(new Pending(suppressed, ExceptionChain.Relation.SUPPRESSED, depth));
+    }
+
+    /** Throwable fields resolved once per read; every instance is then read with a single getValues call. */
+    private static final class ThrowableFields {
+        final Field detailMessage, stackTrace, cause, suppressed;
+        final List<Field> all = new ArrayList<>(4);
+
+        ThrowableFields(ClassType throwable) {
+            detailMessage = add(throwable.fieldByName("detailMessage"));
+            stackTrace = add(throwable.fieldByName("stackTrace"));
+            cause = add(throwable.fieldByName("cause"));
+            suppressed = add(throwable.fieldByName("suppressedExceptions"));
+        }
+
+        private Field add(@Nullable Field field) {
+            if (field != null) all.add(field);
+            return field;
+        }
+
+        Snapshot read(ObjectReference exception, int maxFrames) {
+            Map<Field, Value> values = exception.getValues(all);
+            Snapshot snapshot = new Snapshot();
+            snapshot.message = string(values, detailMessage);
+            snapshot.frames = readStackTrace(stackTrace != null ? values.get(stackTrace) : null, maxFrames);
+            Value causeValue = cause != null ? values.get(cause) : null;
+            // Throwable.cause == this means "no cause set"
+            if (causeValue instanceof ObjectReference && !causeValue.equals(exception)) snapshot.cause = (ObjectReference) causeValue;
+            snapshot.suppressed = readList(suppressed != null ? values.get(suppressed) : null);
+            return snapshot;
+        }
+    }
+
+    private static final class Snapshot {
+        String message;
+        List<ExceptionFrame> frames;
+        ObjectReference cause;
+        List<ObjectReference> suppressed;
+    }
+
+    private static final class Pending {
+        final ObjectReference ref;
+        final ExceptionChain.Relation relation;
+        final int depth;
+
+        Pending(ObjectReference ref, ExceptionChain.Relation relation, int depth) {
+            this.ref = ref;
+            this.relation = relation;
+            this.depth = depth;
+        }
+    }
+
+    /** Elements of a java.util.ArrayList; any other list type (e.g. the empty sentinel) yields none. */
+    private static List<ObjectReference> readList(@Nullable Value listValue) {
+        List<ObjectReference> result = new ArrayList<>();
+        if (!(listValue instanceof ObjectReference)) return result;
+        ObjectReference list = (ObjectReference) listValue;
+        ReferenceType type = list.referenceType();
+        if (!"java.util.ArrayList".equals(type.name())) return result;
+        Field elementData = type.fieldByName("elementData"), size = type.fieldByName("size");
+        if (elementData == null || size == null) return result;
+        Map<Field, Value> values = list.getValues(Arrays.asList(elementData, size));
+        Value data = values.get(elementData), count = values.get(size);
+        if (!(data instanceof ArrayReference) || !(count instanceof IntegerValue)) return result;
+        int n = Math.min(((IntegerValue) count).value(), ((ArrayReference) data).length());
+        if (n == 0) return result;
+        for (Value element : ((ArrayReference) data).getValues(0, n)) {
+            if (element instanceof ObjectReference) result.add((ObjectReference) element);
+        }
+        return result;
+    }
+
+    private static List<ExceptionFrame> readStackTrace(@Nullable Value traceValue, int maxFrames) {
+        List<ExceptionFrame> frames = new ArrayList<>();
+        if (!(traceValue instanceof ArrayReference)) return frames;
+        ArrayReference array = (ArrayReference) traceValue;
+        int count = Math.min(array.length(), maxFrames);
+        if (count == 0) return frames;
+
+        List<Field> elementFields = null;
+        Field declaringClass = null, methodName = null, fileName = null, lineNumber = null;
+        for (Value element : array.getValues(0, count)) {
+            if (!(element instanceof ObjectReference)) continue;
+            ObjectReference ref = (ObjectReference) element;
+            if (elementFields == null) {
+                ReferenceType type = ref.referenceType();
+                if (!STACK_TRACE_ELEMENT.equals(type.name())) return frames;
+                declaringClass = type.fieldByName("declaringClass");
+                methodName = type.fieldByName("methodName");
+                fileName = type.fieldByName("fileName");
+                lineNumber = type.fieldByName("lineNumber");
+                elementFields = new ArrayList<>(Arrays.asList(declaringClass, methodName, fileName, lineNumber));
+                elementFields.removeIf(f -> f == null);
+            }
+            Map<Field, Value> v = ref.getValues(elementFields);
+            frames.add(new ExceptionFrame(string(v, declaringClass), string(v, methodName), string(v, fileName),
+                    lineNumber != null && v.get(lineNumber) instanceof IntegerValue ? ((IntegerValue) v.get(lineNumber)).value() : -1));
+        }
+        return frames;
+    }
+
+    private static List<ExceptionFrame> readThreadFrames(ThreadReference thread) {
+        List<ExceptionFrame> frames = new ArrayList<>();
+        try {
+            int count = Math.min(thread.frameCount(), Constants.MAX_STACKTRACE_LINES);
+            for (StackFrame stackFrame : thread.frames(0, count)) {
+                Location location = stackFrame.location();
+                String source;
+                try { source = location.sourceName(); } catch (AbsentInformationException e) { source = null; }
+                frames.add(new ExceptionFrame(location.declaringType().name(), location.method().name(), source,
+                        location.method().isNative() ? -2 : location.lineNumber()));
+            }
+        } catch (IncompatibleThreadStateException e) {
+            logger.debug("Throwing thread not suspended: " + thread.name());
+        }
+        return frames;
+    }
+
+    @Nullable
+    private static ClassType findThrowable(ReferenceType type) {
+        ClassType current = type instanceof ClassType ? (ClassType) type : null;
+        while (current != null && !THROWABLE.equals(current.name())) current = current.superclass();
+        return current;
+    }
+
+    @Nullable
+    private static String string(Map<Field, Value> values, @Nullable Field field) {
+        Value value = field != null ? values.get(field) : null;
+        return value instanceof StringReference ? ((StringReference) value).value() : null;
+    }
+}
@@ -0,0 +1,166 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.debugger.engine.DebugProcessImpl;
+import com.intellij.debugger.engine.JavaDebugProcess;
+import com.intellij.debugger.engine.events.DebuggerCommandImpl;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.xdebugger.XDebugProcess;
+import com.sun.jdi.IncompatibleThreadStateException;
+import com.sun.jdi.Location;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VirtualMachine;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds a wait-for graph from JDI monitor info of a paused JVM and reports deadlocks and
+ * contention hot spots.
+ *
+ * For every suspended thread the owned monitors and the contended monitor are read on the
+ * debugger manager thread. Only threads blocked on monitor entry ({@code THREAD_STATUS_MONITOR})
+ * are waiters; a thread in {@code Object.wait()} also reports a contended monitor, but it waits
+ * for a notify rather than for the owner, so it is left out of the graph. Each thread waits on at
+ * most one monitor, so the graph has at most one outgoing edge per thread and cycles are found
+ * in a single linear pass. Only referenced from the Java debugger path, so PyCharm never loads
+ * the JDI classes.
+ */
+public final class LockContentionAnalyzer {
+
+    private static final Logger logger = Logger.getInstance(LockContentionAnalyzer.class);
+
+    private static final int MAX_HOT_SPOTS = 20;
+    private static final int MAX_WAITER_NAMES = 10;
+
+    private LockContentionAnalyzer() {}
+
+    public static boolean isSupported(@NotNull XDebugProcess process) { return process instanceof JavaDebugProcess; }
+
+    public static void analyze(@NotNull XDebugProcess process, @NotNull Consumer<ContextItem> callback) {
+        if (!isSupported(process)) {
+            callback.accept(new ContextItem(null, false, ContextItem.Type.CONTENTION));
+            return;
+        }
+        DebugProcessImpl debugProcess = ((JavaDebugProcess) process).getDebuggerSession().getProcess();
+        debugProcess.getManagerThread().schedule(new DebuggerCommandImpl() {
+            @Override
+            protected void action() {
+                ContentionReport report = null;
+                try {
+                    report = buildReport(debugProcess.getVirtualMachineProxy().getVirtualMachine());
+                } catch (Throwable t) {
+                    logger.warn("Lock contention analysis failed: " + t.getMessage());
+                }
+                callback.accept(new ContextItem(report, report != null, ContextItem.Type.CONTENTION));
+            }
+
+            @Override
+            protected void commandCancelled() {
+                callback.accept(new ContextItem(null, false, ContextItem.Type.CONTENTION));
+            }
+        });
+    }
+
+    @Nullable
+    private static ContentionReport buildReport(VirtualMachine vm) {
+        if (!vm.canGetOwnedMonitorInfo() || !vm.canGetCurrentContendedMonitor()) {
+            logger.debug("VM cannot report monitor info; skipping contention analysis");
+            return null;
+        }
+
+        Map<Long, ThreadReference> ownerByMonitor = new HashMap<>();
+        Map<ThreadReference, ObjectReference> waitingOn = new HashMap<>();
+        List<ThreadReference> threads = vm.allThreads();
+        int inspected = 0;
+        for (ThreadReference thread : threads) {
+            if (!thread.isSuspended()) continue;
+            try {
+                for (ObjectReference monitor : thread.ownedMonitors()) ownerByMonitor.put(monitor.uniqueID(), thread);
+                ObjectReference contended = thread.status() == ThreadReference.THREAD_STATUS_MONITOR
+                        ? thread.currentContendedMonitor() : null;
+                if (contended != null) waitingOn.put(thread, contended);
+                inspected++;
+            } catch (IncompatibleThreadStateException e) {
+                logger.debug("Thread not inspectable: " + thread.name());
+            }
+        }
+
+        ContentionReport report = new ContentionReport();
+        report.setThreadsInspected(inspected);
+        findDeadlocks(waitingOn, ownerByMonitor, report);
+        findHotSpots(waitingOn, ownerByMonitor, report);
+        return report;
+    }
+
+    /** Follows each thread's single wait-for edge; a walk that returns to its own path is a cycle. */
+    private static void findDeadlocks(Map<ThreadReference, ObjectReference> waitingOn,
+                                      Map<Long, ThreadReference> ownerByMonitor, ContentionReport report) {
+        Map<ThreadReference, Integer> walkOf = new HashMap<>();
+        int walk = 0;
+        for (ThreadReference start : waitingOn.keySet()) {
+            if (walkOf.containsKey(start)) continue;
+            walk++;
+            List<ThreadReference> path = new ArrayList<>();
+            ThreadReference current = start;
+            while (current != null && !walkOf.containsKey(current)) {
+                walkOf.put(current, walk);
+                path.add(current);
+                ObjectReference monitor = waitingOn.get(current);
+                current = monitor != null ? ownerByMonitor.get(monitor.uniqueID()) : null;
+            }
+            // Reaching a thread first seen in this same walk closes a new cycle
+            if (current == null || walkOf.get(current) != walk) continue;
+            ContentionReport.Deadlock deadlock = new ContentionReport.Deadlock();
+            for (int i = path.indexOf(current); i < path.size(); i++) {
+                ThreadReference thread = path.get(i);
+                deadlock.getThreads().add(thread.name());
+                deadlock.getMonitors().add(describe(waitingOn.get(thread)));
+            }
+            report.getDeadlocks().add(deadlock);
+        }
+    }
+
+    private static void findHotSpots(Map<ThreadReference, ObjectReference> waitingOn,
+                                     Map<Long, ThreadReference> ownerByMonitor, ContentionReport report) {
+        Map<Long, List<ThreadReference>> waitersByMonitor = new HashMap<>();
+        Map<Long, ObjectReference> monitors = new HashMap<>();
+        for (Map.Entry<ThreadReference, ObjectReference> e : waitingOn.entrySet()) {
+            long id = e.getValue().uniqueID();
+            monitors.put(id, e.getValue());
+            waitersByMonitor.computeIfAbsent(id, k -> new ArrayList<>()).add(e.getKey());
+        }
+        List<Long> ranked = new ArrayList<>(waitersByMonitor.keySet());
+        ranked.sort((a, b) -> Integer.compare(waitersByMonitor.get(b).size(), waitersByMonitor.get(a).size()));
+
+        for (Long id : ranked.subList(0, Math.min(MAX_HOT_SPOTS, ranked.size()))) {
+            ThreadReference owner = ownerByMonitor.get(id);
+            List<ThreadReference> waiters = waitersByMonitor.get(id);
+            ContentionReport.HotSpot hotSpot = new ContentionReport.HotSpot(describe(monitors.get(id)),
+                    owner != null ? owner.name() : "<unknown>", owner != null ? topLocation(owner) : "", waiters.size());
+            for (ThreadReference waiter : waiters.subList(0, Math.min(MAX_WAITER_NAMES, waiters.size()))) {
+                hotSpot.getWaiters().add(waiter.name());
+            }
+            report.getHotSpots().add(hotSpot);
+        }
+    }
+
+    private static String describe(ObjectReference monitor) {
+        return monitor == null ? "<none>" : monitor.referenceType().name() + "@" + monitor.uniqueID();
+    }
+
+    private static String topLocation(ThreadReference thread) {
+        try {
+            if (thread.frameCount() == 0) return "";
+            Location location = thread.frame(0).location();
+            return location.sourceName() + ":" + location.lineNumber();
+        } catch (Throwable t) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.frame.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collects shallow variable snapshots for the top K frames of an execution stack in parallel.
+ *
+ * A shared node and byte budget is split across the frames by distance from the top: frame d
+ * gets a share proportional to 1/(d+1), so the frame the debugger stopped in gets the most and
+ * callers progressively less. Every computeChildren/computePresentation request of every frame
+ * goes through one {@link ConcurrencyWindow}, which bounds the requests in flight across all
+ * frames. The callback receives a FRAMES item holding one {@link FrameSnapshot} per frame, in
+ * stack order, once every frame has finished, or with the frames finished so far when
+ * {@link #finish()} is called first.
+ */
+public final class MultiFrameSnapshotCollector {
+
+    private static final Logger logger = Logger.getInstance(MultiFrameSnapshotCollector.class);
+
+    public static final int DEFAULT_TOP_FRAMES = 5;
+    public static final int DEFAULT_NODE_BUDGET = 600;
+    public static final int DEFAULT_BYTE_BUDGET = 24 * 1024;
+    public static final int DEFAULT_MAX_DEPTH = 1;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+    private static final int MAX_VALUE_CHARS = 512;
+
+    private final XExecutionStack stack;
+    private final int topFrames;
+    private final int nodeBudget;
+    private final int byteBudget;
+    private final int maxDepth;
+    private final ConcurrencyWindow window;
+    private final Consumer<ContextItem> callback;
+
+    private final List<XStackFrame> frames = new ArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean emitted = new AtomicBoolean(false);
+    private volatile FrameSnapshot[] slots = new FrameSnapshot[0];
+
+    public MultiFrameSnapshotCollector(@NotNull XExecutionStack stack, int topFrames, int nodeBudget, int byteBudget,
+                                       int maxDepth, int maxInFlight, @NotNull Consumer<ContextItem> callback) {
+        this.stack = stack;
+        this.topFrames = Math.max(1, topFrames);
+        this.nodeBudget = nodeBudget;
+        this.byteBudget = byteBudget;
+        this.maxDepth = maxDepth;
+        this.window = new ConcurrencyWindow(maxInFlight);
+        this.callback = callback;
+    }
+
+    public void start() {
+        try {
+            stack.computeStackFrames(0, new XExecutionStack.XStackFrameContainer() {
+                @Override
+                public void addStackFrames(@NotNull List<? extends XStackFrame> page, boolean last) {
+                    boolean enough;
+                    synchronized (frames) {
+                        for (XStackFrame frame : page) {
+                            if (frames.size() >= topFrames) break;
+                            frames.add(frame);
+                        }
+                        enough = frames.size() >= topFrames;
+                    }
+                    if (last || enough) collectAll();
+                }
+                @Override public void errorOccurred(@NotNull String errorMessage) {
+                    logger.debug("computeStackFrames error: " + errorMessage);
+                    collectAll();
+                }
+                @Override public boolean isObsolete() {
+                    synchronized (frames) { return frames.size() >= topFrames; }
+                }
+            });
+        } catch (Throwable t) {
+            logger.warn("Unable to compute stack frames: " + t.getMessage());
+            collectAll();
+        }
+    }
+
+    private void collectAll() {
+        if (!started.compareAndSet(false, true)) return;
+        List<XStackFrame> top;
+        synchronized (frames) { top = new ArrayList<>(frames); }
+        int count = top.size();
+        if (count == 0) {
+            emit(new FrameSnapshot[0]);
+            return;
+        }
+
+        double weightSum = 0;
+        for (int d = 0; d < count; d++) weightSum += 1.0 / (d + 1);
+        FrameSnapshot[] slots = new FrameSnapshot[count];
+        this.slots = slots;
+        AtomicInteger pending = new AtomicInteger(count);
+        for (int d = 0; d < count; d++) {
+            int index = d;
+            double share = (1.0 / (d + 1)) / weightSum;
+            new FrameTraversal(index, top.get(d), Math.max(1, (int) (nodeBudget * share)),
+                    Math.max(1, (int) (byteBudget * share)), snapshot -> {
+                synchronized (slots) { slots[index] = snapshot; }
+                if (pending.decrementAndGet() == 0) emit(slots);
+            }).start();
+        }
+    }
+
+    /** Reports the frames that have finished, in stack order, unless the result was already reported. */
+    public void finish() {
+        started.set(true);
+        emit(slots);
+    }
+
+    private void emit(FrameSnapshot[] slots) {
+        if (!emitted.compareAndSet(false, true)) return;
+        List<FrameSnapshot> result = new ArrayList<>(slots.length);
+        synchronized (slots) {
+            for (FrameSnapshot slot : slots) if (slot != null) result.add(slot);
+        }
+        callback.accept(new ContextItem(result, !result.isEmpty(), ContextItem.Type.FRAMES));
+    }
+
+    private static String location(XStackFrame frame) {
+        try {
+            XSourcePosition pos = frame.getSourcePosition();
+            return pos == null ? "<unknown>" : pos.getFile().getPath() + ":" + (pos.getLine() + 1);
+        } catch (Throwable t) {
+            return "<unknown>";
+        }
+    }
+
+    /**
+     * Walks one frame's locals down to {@code maxDepth} within its share of the budget. Every
+     * outstanding debugger request is counted; the frame is done when the count drops to zero.
+     */
+    private final class FrameTraversal {
+        private final int index;
+        private final XStackFrame frame;
+        private final int maxNodes;
+        private final int maxBytes;
+        private final Consumer<FrameSnapshot> onDone;
+
+        private final List<MutableSnapshotItem> roots = new ArrayList<>();
+        private final AtomicInteger nodes = new AtomicInteger();
+        private final AtomicInteger bytes = new AtomicInteger();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean truncated;
+
+        FrameTraversal(int index, XStackFrame frame, int maxNodes, int maxBytes, Consumer<FrameSnapshot> onDone) {
+            this.index = index;
+            this.frame = frame;
+            this.maxNodes = maxNodes;
+            this.maxBytes = maxBytes;
+            this.onDone = onDone;
+        }
+
+        void start() { expand(frame, roots, 0, "Local"); }
+
+        private void expand(XValueContainer container, List<MutableSnapshotItem> into, int depth, String kind) {
+            outstanding.incrementAndGet();
+            window.submit(done -> {
+                AtomicBoolean released = new AtomicBoolean(false);
+                Runnable finishRequest = () -> { if (released.compareAndSet(false, true)) requestDone(done); };
+                try {
+                    container.computeChildren(new XCompositeNode() {
+                        @Override
+                        public void addChildren(@NotNull XValueChildrenList children, boolean last) {
+                            for (int i = 0; i < children.size(); i++) {
+                                if (truncated || nodes.incrementAndGet() > maxNodes) { truncated = true; break; }
+                                MutableSnapshotItem item = new MutableSnapshotItem(children.getName(i), "unknown", "unavailable", kind);
+                                synchronized (into) { into.add(item); }
+                                present(children.getValue(i), item, depth);
+                            }
+                            if (last || truncated) finishRequest.run();
+                        }
+                        @Override public void tooManyChildren(int remaining) { truncated = true; finishRequest.run(); }
+                        @Override public void setAlreadySorted(boolean alreadySorted) {}
+                        @Override public void setErrorMessage(@NotNull String errorMessage) { finishRequest.run(); }
+                        @Override public void setErrorMessage(@NotNull String s, @Nullable XDebuggerTreeNodeHyperlink link) { finishRequest.run(); }
+                        @Override public void setMessage(@NotNull String s, @Nullable Icon icon, @NotNull com.intellij.ui.SimpleTextAttributes attrs, @Nullable XDebuggerTreeNodeHyperlink link) {}
+                    });
+                } catch (Throwable t) {
+                    logger.debug("computeChildren failed in frame " + index + ": " + t.getMessage());
+                    finishRequest.run();
+                }
+            });
+        }
+
+        private void present(XValue value, MutableSnapshotItem item, int depth) {
+            outstanding.incrementAndGet();
+            // The slot is held until a real presentation arrives or the presentation timeout releases it
+            window.submit(done -> XValueRequests.presentation(value).whenComplete((presentation, error) -> {
+                try {
+                    if (presentation == null) return;
+                    if (presentation.type != null) item.type = presentation.type;
+                    String text = presentation.text != null ? presentation.text : "";
+                    if (text.isEmpty() && DebugDataCollector.isPyCharmEnvironment()) {
+                        String pyRendered = DebugDataCollector.tryReflectPyValueString(value);
+                        if (pyRendered != null) text = pyRendered;
+                    }
+                    item.value = text.length() > MAX_VALUE_CHARS ? text.substring(0, MAX_VALUE_CHARS) + "..." : text;
+                    int size = item.name.length() + item.value.length() + (item.type != null ? item.type.length() : 0);
+                    if (bytes.addAndGet(size) > maxBytes) truncated = true;
+                    if (presentation.hasChildren && depth < maxDepth && !truncated) expand(value, item.children, depth + 1, "Field");
+                } catch (Throwable t) {
+                    logger.debug("Error computing value for " + item.name + ": " + t.getMessage());
+                    item.value = "Value not available";
+                } finally {
+                    requestDone(done);
+                }
+            }));
+        }
+
+        private void requestDone(Runnable done) {
+            done.run();
+            if (outstanding.decrementAndGet() == 0) complete();
+        }
+
+        private void complete() {
+            List<SnapshotItem> variables = new ArrayList<>();
+            synchronized (roots) { for (MutableSnapshotItem item : roots) variables.add(item.toSnapshotItem()); }
+            onDone.accept(new FrameSnapshot(index, location(frame), variables, truncated));
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.frame.XExecutionStack;
+import com.intellij.xdebugger.frame.XStackFrame;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Collects one execution stack page by page.
+ *
+ * The debugger delivers frames through repeated addStackFrames calls; only the call with
+ * {@code last == true} ends the stack. This collector:
+ * 1) publishes the first page as soon as its frames are resolved (partial result),
+ * 2) keeps accumulating until {@code last}, the item cap or the consumer's demand is reached,
+ * 3) emits exactly one final result.
+ * Once the demand is met the container reports itself obsolete, so the debugger stops computing
+ * deeper frames; {@link #requestMore(int)} resumes from the first frame not yet consumed. With
+ * {@link #whileNeeded} the collector asks its consumer after each page whether to fetch another
+ * one, and finishes as soon as the answer is no.
+ * Frames reused from a {@link StackDiffer} baseline skip enclosing-function extraction.
+ */
+public final class PagedStackCollector {
+
+    private static final Logger logger = Logger.getInstance(PagedStackCollector.class);
+
+    public static final int DEFAULT_FIRST_PAGE_SIZE = 10;
+
+    private final XExecutionStack stack;
+    private final Project project;
+    private final int maxItems;
+    private final int firstPageSize;
+    private final Consumer<List<StackItem>> onPartial;
+    private final Consumer<ContextItem> onFinal;
+    private final StackDiffer differ;
+    private final Consumer<StackDelta> onDelta;
+
+    private final List<StackItem> items = new ArrayList<>();
+    private final List<StackDiffer.FrameRecord> records = new ArrayList<>();
+    private final List<CompletableFuture<Void>> pendingFunctions = new ArrayList<>();
+    private int demand;
+    private int nextFrameIndex;
+    private int generation;
+    private boolean requestInFlight;
+    private boolean partialPublished;
+    private List<StackItem> firstPage = new ArrayList<>();
+    private boolean reachedBottom;
+    private boolean finished;
+    private boolean resolveFunctions = true;
+    private Predicate<List<StackItem>> needsMore;
+
+    public PagedStackCollector(@NotNull XExecutionStack stack, @NotNull Project project, int maxItems, int firstPageSize,
+                               @Nullable Consumer<List<StackItem>> onPartial, @NotNull Consumer<ContextItem> onFinal) {
+        this(stack, project, maxItems, firstPageSize, onPartial, onFinal, null, null);
+    }
+
+    /**
+     * With a {@link StackDiffer}, frames unchanged since the previous pause reuse their StackItem
+     * instead of being resolved again, and {@code onDelta} receives the difference before the final result.
+     */
+    public PagedStackCollector(@NotNull XExecutionStack stack, @NotNull Project project, int maxItems, int firstPageSize,
+                               @Nullable Consumer<List<StackItem>> onPartial, @NotNull Consumer<ContextItem> onFinal,
+                               @Nullable StackDiffer differ, @Nullable Consumer<StackDelta> onDelta) {
+        this.stack = stack;
+        this.project = project;
+        this.maxItems = maxItems;
+        this.firstPageSize = Math.min(firstPageSize, maxItems);
+        this.onPartial = onPartial;
+        this.onFinal = onFinal;
+        this.differ = differ;
+        this.onDelta = onDelta;
+    }
+
+    /** Skips enclosing-function extraction (e.g. for thread dumps, where only locations matter). Call before start. */
+    public PagedStackCollector withoutFunctionText() {
+        synchronized (this) { resolveFunctions = false; }
+        return this;
+    }
+
+    /**
+     * Pages on demand: whenever the current demand is met before the bottom, {@code needsMore}
+     * sees the frames collected so far, once their function text has resolved, and decides
+     * between another page and finishing. Call before start.
+     */
+    public PagedStackCollector whileNeeded(@NotNull Predicate<List<StackItem>> needsMore) {
+        synchronized (this) { this.needsMore = needsMore; }
+        return this;
+    }
+
+    /** The first page once its function text was resolved and published; empty before that. */
+    public synchronized List<StackItem> getFirstPage() { return new ArrayList<>(firstPage); }
+
+    /** True once the bottom of the stack was reached, i.e. the collected frames are the whole stack. */
+    public synchronized boolean reachedBottom() { return reachedBottom; }
+
+    /** Starts collection; frames are requested until {@code initialDemand} items (capped) are collected. */
+    public void start(int initialDemand) {
+        synchronized (this) {
+            demand = Math.min(Math.max(initialDemand, firstPageSize), maxItems);
+        }
+        requestFrames();
+    }
+
+    /** Asks for {@code frames} more items below the ones already collected. */
+    public void requestMore(int frames) {
+        synchronized (this) {
+            if (finished) return;
+            demand = Math.min(demand + frames, maxItems);
+        }
+        requestFrames();
+    }
+
+    /** Emits the final result with whatever has been collected so far. */
+    public void finish() { finish(true); }
+
+    private void requestFrames() {
+        int firstIndex, gen;
+        synchronized (this) {
+            if (finished || requestInFlight || items.size() >= demand) return;
+            requestInFlight = true;
+            firstIndex = nextFrameIndex;
+            gen = ++generation;
+        }
+        try {
+            stack.computeStackFrames(firstIndex, new XExecutionStack.XStackFrameContainer() {
+                @Override
+                public void addStackFrames(@NotNull List<? extends XStackFrame> frames, boolean last) {
+                    onFrames(gen, frames, last);
+                }
+                @Override public void errorOccurred(@NotNull String errorMessage) {
+                    logger.debug("computeStackFrames error: " + errorMessage);
+                    finish(false);
+                }
+                @Override public boolean isObsolete() {
+                    synchronized (PagedStackCollector.this) {
+                        return finished || gen != generation || items.size() >= demand;
+                    }
+                }
+            });
+        } catch (Throwable t) {
+            logger.warn("Unable to compute stack frames: " + t.getMessage());
+            finish(false);
+        }
+    }
+
+    private void onFrames(int gen, List<? extends XStackFrame> frames, boolean last) {
+        boolean publishPartial = false, complete, demandMet;
+        Predicate<List<StackItem>> pager;
+        List<StackItem> collected;
+        CompletableFuture<?>[] functions = null;
+        synchronized (this) {
+            if (finished || gen != generation) return;
+            int consumed = 0;
+            for (XStackFrame frame : frames) {
+                if (items.size() >= demand) break;
+                consumed++;
+                nextFrameIndex++;
+                XSourcePosition pos = frame.getSourcePosition();
+                if (pos == null) continue;
+                String path = pos.getFile().getPath(), method = methodKey(frame);
+                int line = pos.getLine() + 1;
+                long stamp = contentStamp(pos.getFile());
+
+                StackItem item = differ != null ? differ.findReusable(path, method, line, stamp) : null;
+                if (item == null && !resolveFunctions) {
+                    item = new StackItem(path, line, "", pos.getFile().getExtension());
+                    pendingFunctions.add(CompletableFuture.completedFuture(null));
+                } else if (item == null) {
+                    StackItem resolved = new StackItem(path, line, "", pos.getFile().getExtension());
+                    pendingFunctions.add(EnclosingFunctionExtractor.getInstance()
+                            .extractAsync(project, pos.getFile(), pos.getLine())
+                            .thenAccept(functionText -> { if (functionText != null) resolved.setFunction(functionText); }));
+                    item = resolved;
+                } else {
+                    pendingFunctions.add(CompletableFuture.completedFuture(null));
+                }
+                items.add(item);
+                records.add(new StackDiffer.FrameRecord(path, method, line, stamp, item));
+            }
+            if (last && consumed == frames.size()) reachedBottom = true;
+            complete = last || items.size() >= maxItems;
+            demandMet = items.size() >= demand;
+            if (!complete && !partialPublished && items.size() >= firstPageSize) {
+                partialPublished = true;
+                publishPartial = onPartial != null;
+            }
+            if (demandMet || last) requestInFlight = false;
+            pager = needsMore;
+            collected = pager != null && demandMet && !complete ? new ArrayList<>(items) : null;
+            if (collected != null) functions = pendingFunctions.toArray(new CompletableFuture[0]);
+        }
+        if (publishPartial) publishPartial();
+        if (complete) {
+            finish(true);
+        } else if (collected != null) {
+            // Sized only once the function text is in place; the bare locations would always fit
+            CompletableFuture.allOf(functions).whenComplete((ignored, error) -> {
+                if (pager.test(collected)) requestMore(firstPageSize);
+                else finish(true);
+            });
+        }
+    }
+
+    private void publishPartial() {
+        List<StackItem> page;
+        CompletableFuture<?>[] pageFunctions;
+        synchronized (this) {
+            page = new ArrayList<>(items.subList(0, Math.min(firstPageSize, items.size())));
+            pageFunctions = pendingFunctions.subList(0, page.size()).toArray(new CompletableFuture[0]);
+        }
+        CompletableFuture.allOf(pageFunctions).whenComplete((ignored, error) -> {
+            // Checked and published under the lock finish() takes, so a late page never follows the final result
+            synchronized (this) {
+                if (finished) return;
+                firstPage = page;
+                onPartial.accept(page);
+            }
+        });
+    }
+
+    private void finish(boolean success) {
+        List<StackItem> result;
+        List<StackDiffer.FrameRecord> frameRecords;
+        CompletableFuture<?>[] functions;
+        boolean complete;
+        synchronized (this) {
+            if (finished) return;
+            finished = true;
+            result = new ArrayList<>(items);
+            frameRecords = new ArrayList<>(records);
+            functions = pendingFunctions.toArray(new CompletableFuture[0]);
+            complete = reachedBottom;
+        }
+        CompletableFuture.allOf(functions).whenComplete((ignored, error) -> {
+            if (differ != null && success) {
+                StackDelta delta = differ.update(frameRecords, complete);
+                if (onDelta != null) onDelta.accept(delta);
+            }
+            onFinal.accept(new ContextItem(result, success, ContextItem.Type.STACK));
+        });
+    }
+
+    /**
+     * Stamp of the text the function would be extracted from: the Document's while the file is
+     * loaded in memory, so unsaved edits change it, the file's otherwise. A loaded Document starts
+     * from the file's stamp, so the two never collide.
+     */
+    private static long contentStamp(VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getModificationStamp() : file.getModificationStamp();
+    }
+
+    /** Stable method identity for a frame; the platform's equality object where the debugger provides one. */
+    private static String methodKey(XStackFrame frame) {
+        try {
+            Object equality = frame.getEqualityObject();
+            if (equality != null) return String.valueOf(equality);
+        } catch (Throwable ignored) {}
+        return "";
+    }
+}
@@ -0,0 +1,143 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.frame.XSuspendContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Processes debugger pauses off the debugger thread and the EDT, one at a time, latest first.
+ *
+ * {@link #submit} only records the pause and returns. A background worker picks up the most
+ * recent pause; pauses submitted while one is being processed replace each other, so a burst of
+ * steps costs one collection for the last of them. A pause whose suspend context is no longer
+ * current when its turn comes is dropped. Coalesced and dropped pauses leave no trace in the
+ * exception dedupe state, which is only updated once a collection has produced an exception,
+ * so a later hit of the same exception is still collected. The processor returns a future and the next pause
+ * starts when it completes, so no thread waits on the debugger. Time spent in each
+ * {@link Stage} is counted in {@link Metrics}.
+ */
+public final class PausePipeline {
+
+    private static final Logger logger = Logger.getInstance(PausePipeline.class);
+
+    public enum Stage { QUEUED, DECIDE, COLLECT, PRESENT }
+
+    private final ExecutorService worker = AppExecutorUtil.createBoundedApplicationPoolExecutor("DebugAssist Pause Pipeline", 1);
+    private final AtomicReference<Pause> latest = new AtomicReference<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Function<Pause, CompletableFuture<?>> processor;
+
+    public PausePipeline(@NotNull Function<Pause, CompletableFuture<?>> processor) {
+        this.processor = processor;
+    }
+
+    /** Queues the session's current pause, replacing one that has not started yet. Never blocks. */
+    public void submit(@NotNull XDebugSession session) {
+        Metrics.submitted.incrementAndGet();
+        if (latest.getAndSet(new Pause(session, session.getSuspendContext())) != null) Metrics.coalesced.incrementAndGet();
+        scheduleNext();
+    }
+
+    private void scheduleNext() {
+        if (latest.get() == null || !running.compareAndSet(false, true)) return;
+        worker.execute(this::runNext);
+    }
+
+    private void runNext() {
+        Pause pause = latest.getAndSet(null);
+        if (pause == null) { done(); return; }
+        if (pause.isStale()) {
+            Metrics.stale.incrementAndGet();
+            done();
+            return;
+        }
+        pause.mark(Stage.QUEUED);
+        CompletableFuture<?> processed;
+        try {
+            processed = processor.apply(pause);
+        } catch (Throwable t) {
+            logger.warn("Pause processing failed: " + t.getMessage());
+            processed = CompletableFuture.completedFuture(null);
+        }
+        processed.whenComplete((result, error) -> {
+            if (error != null) logger.warn("Pause processing failed: " + error.getMessage());
+            Metrics.processed.incrementAndGet();
+            logger.debug("Pause processed: " + pause);
+            done();
+        });
+    }
+
+    private void done() {
+        running.set(false);
+        scheduleNext();
+    }
+
+    /** One pause moving through the pipeline; {@link #mark} closes the current stage. */
+    public static final class Pause {
+        private final XDebugSession session;
+        private final XSuspendContext suspendContext;
+        private final Map<Stage, Long> stageMillis = new EnumMap<>(Stage.class);
+        private long stageStart = System.nanoTime();
+
+        Pause(XDebugSession session, XSuspendContext suspendContext) {
+            this.session = session;
+            this.suspendContext = suspendContext;
+        }
+
+        public XDebugSession getSession() { return session; }
+        public XSuspendContext getSuspendContext() { return suspendContext; }
+
+        /** The session resumed or paused again since this pause was submitted. */
+        public boolean isStale() {
+            return !session.isPaused() || session.getSuspendContext() != suspendContext;
+        }
+
+        public synchronized void mark(@NotNull Stage stage) {
+            long now = System.nanoTime();
+            long millis = (now - stageStart) / 1_000_000;
+            stageStart = now;
+            stageMillis.put(stage, millis);
+            Metrics.record(stage, millis);
+        }
+
+        @Override public synchronized String toString() { return stageMillis.toString(); }
+    }
+
+    /** Process-wide counters: pauses submitted, coalesced away, dropped as stale, processed, and time per stage. */
+    public static final class Metrics {
+        private static final AtomicLong submitted = new AtomicLong();
+        private static final AtomicLong coalesced = new AtomicLong();
+        private static final AtomicLong stale = new AtomicLong();
+        private static final AtomicLong processed = new AtomicLong();
+        private static final AtomicLongArray stageCount = new AtomicLongArray(Stage.values().length);
+        private static final AtomicLongArray stageMillis = new AtomicLongArray(Stage.values().length);
+
+        private Metrics() {}
+
+        static void record(Stage stage, long millis) {
+            stageCount.incrementAndGet(stage.ordinal());
+            stageMillis.addAndGet(stage.ordinal(), millis);
+        }
+
+        public static long getSubmitted() { return submitted.get(); }
+        public static long getCoalesced() { return coalesced.get(); }
+        public static long getStale() { return stale.get(); }
+        public static long getProcessed() { return processed.get(); }
+        public static long getAverageMillis(Stage stage) {
+            long n = stageCount.get(stage.ordinal());
+            return n == 0 ? 0 : stageMillis.get(stage.ordinal()) / n;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the pause rate of one debug session and switches to sampling during pause storms.
+ *
+ * Pauses are counted in {@link #BUCKET_MS} buckets over a sliding window of {@link #WINDOW_MS},
+ * so the rate is exact however fast the pauses come and memory stays constant. At or above {@link #STORM_PAUSES_PER_SECOND} the
+ * monitor enters sampling mode, where only the first and then every {@link #SAMPLE_EVERY}-th
+ * pause per location is collected; it leaves sampling once the rate drops below half the
+ * threshold. A storm lasting {@link #SUSTAINED_STORM_MS} is reported once via
+ * {@link #takeStormReport(long)}.
+ */
+public final class PauseRateMonitor {
+
+    public static final int STORM_PAUSES_PER_SECOND = 20;
+    public static final int SAMPLE_EVERY = 10;
+    public static final long SUSTAINED_STORM_MS = 10_000;
+    static final long WINDOW_MS = 5_000;
+    static final long BUCKET_MS = 100;
+    private static final int BUCKETS = (int) (WINDOW_MS / BUCKET_MS);
+
+    // Ring of per-bucket pause counts; a slot is reused once its bucket has left the window
+    private final long[] bucketIds = new long[BUCKETS];
+    private final int[] bucketCounts = new int[BUCKETS];
+    private long lastBucket = -1;
+    private final Map<String, int[]> pausesByLocation = new HashMap<>();
+    private boolean sampling;
+    private long stormStart = -1;
+    private boolean stormReported;
+    private long skipped;
+
+    public PauseRateMonitor() {
+        Arrays.fill(bucketIds, -1);
+    }
+
+    /** Records a pause at {@code location}; returns whether it should be collected. */
+    public synchronized boolean onPause(@NotNull String location, long now) {
+        long bucket = now / BUCKET_MS;
+        int slot = (int) (bucket % BUCKETS);
+        if (bucketIds[slot] != bucket) {
+            bucketIds[slot] = bucket;
+            bucketCounts[slot] = 0;
+        }
+        bucketCounts[slot]++;
+        lastBucket = Math.max(lastBucket, bucket);
+
+        double rate = getPausesPerSecond();
+        if (!sampling && rate >= STORM_PAUSES_PER_SECOND) {
+            sampling = true;
+            stormStart = now;
+        } else if (sampling && rate < STORM_PAUSES_PER_SECOND / 2.0) {
+            sampling = false;
+            stormStart = -1;
+            stormReported = false;
+            pausesByLocation.clear();
+        }
+        if (!sampling) return true;
+
+        int count = ++pausesByLocation.computeIfAbsent(location, k -> new int[1])[0];
+        boolean collect = count % SAMPLE_EVERY == 1;
+        if (!collect) skipped++;
+        return collect;
+    }
+
+    /** True exactly once per storm, when it has lasted {@link #SUSTAINED_STORM_MS}. */
+    public synchronized boolean takeStormReport(long now) {
+        if (!sampling || stormReported || now - stormStart < SUSTAINED_STORM_MS) return false;
+        stormReported = true;
+        return true;
+    }
+
+    public synchronized boolean isSampling() { return sampling; }
+
+    /** Pauses per second over the window ending at the latest pause. */
+    public synchronized double getPausesPerSecond() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (bucketIds[i] >= 0 && lastBucket - bucketIds[i] < BUCKETS) total += bucketCounts[i];
+        }
+        return total * 1000.0 / WINDOW_MS;
+    }
+
+    /** Pauses not collected because of sampling, over the whole session. */
+    public synchronized long getSkipped() { return skipped; }
+
+    /** The location with the most pauses in the current storm, or null outside sampling mode. */
+    @Nullable
+    public synchronized String getHottestLocation() {
+        String hottest = null;
+        int max = 0;
+        for (Map.Entry<String, int[]> e : pausesByLocation.entrySet()) {
+            if (e.getValue()[0] > max) { max = e.getValue()[0]; hottest = e.getKey(); }
+        }
+        return hottest;
+    }
+}
@@ -0,0 +1,105 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PauseRateMonitorTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    public void slowPausesAreAllCollected() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        for (int i = 0; i < 50; i++) assertTrue(monitor.onPause("Main.java:3", START + i * 100L));
+
+        assertEquals(10.0, monitor.getPausesPerSecond(), 0.001);
+        assertFalse(monitor.isSampling());
+        assertEquals(0, monitor.getSkipped());
+        assertNull(monitor.getHottestLocation());
+    }
+
+    @Test
+    public void rateIsNotCappedAtHighPauseFrequencies() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        // 500 pauses per second across the whole window
+        for (int i = 0; i < 2500; i++) monitor.onPause("Loop.java:7", START + i * 2L);
+
+        assertEquals(500.0, monitor.getPausesPerSecond(), 0.001);
+    }
+
+    @Test
+    public void pausesOlderThanTheWindowAreNotCounted() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        for (int i = 0; i < 100; i++) monitor.onPause("Loop.java:7", START + i);
+        monitor.onPause("Loop.java:7", START + PauseRateMonitor.WINDOW_MS + 1_000);
+
+        assertEquals(1000.0 / PauseRateMonitor.WINDOW_MS, monitor.getPausesPerSecond(), 0.001);
+    }
+
+    @Test
+    public void stormSamplesOneInTenPausesPerLocation() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        int threshold = PauseRateMonitor.STORM_PAUSES_PER_SECOND * (int) (PauseRateMonitor.WINDOW_MS / 1000);
+        // Below the threshold every pause is collected
+        for (int i = 0; i < threshold - 1; i++) assertTrue(monitor.onPause("Loop.java:7", START + i));
+        assertFalse(monitor.isSampling());
+
+        int collected = 0;
+        for (int i = 0; i < 10 * PauseRateMonitor.SAMPLE_EVERY; i++) {
+            if (monitor.onPause("Loop.java:7", START + threshold + i)) collected++;
+        }
+
+        assertTrue(monitor.isSampling());
+        assertEquals(10, collected);
+        assertEquals(90, monitor.getSkipped());
+        assertEquals("Loop.java:7", monitor.getHottestLocation());
+    }
+
+    @Test
+    public void firstPauseAtANewLocationIsCollectedDuringAStorm() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        for (int i = 0; i < 200; i++) monitor.onPause("Loop.java:7", START + i);
+
+        assertTrue(monitor.isSampling());
+        assertTrue(monitor.onPause("Other.java:1", START + 200));
+        assertFalse(monitor.onPause("Other.java:1", START + 201));
+    }
+
+    @Test
+    public void samplingEndsWhenTheRateDrops() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        for (int i = 0; i < 200; i++) monitor.onPause("Loop.java:7", START + i);
+        assertTrue(monitor.isSampling());
+
+        assertTrue(monitor.onPause("Loop.java:7", START + 2 * PauseRateMonitor.WINDOW_MS));
+
+        assertFalse(monitor.isSampling());
+        assertNull(monitor.getHottestLocation());
+    }
+
+    @Test
+    public void sustainedStormIsReportedOnce() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        long end = START + PauseRateMonitor.SUSTAINED_STORM_MS + 5_000;
+        int reports = 0;
+        for (long t = START; t < end; t += 10) {
+            monitor.onPause("Loop.java:7", t);
+            if (monitor.takeStormReport(t)) reports++;
+        }
+
+        assertEquals(1, reports);
+    }
+
+    @Test
+    public void shortStormIsNotReported() {
+        PauseRateMonitor monitor = new PauseRateMonitor();
+        for (long t = START; t < START + 2_000; t += 10) {
+            monitor.onPause("Loop.java:7", t);
+            assertFalse(monitor.takeStormReport(t));
+        }
+    }
+}
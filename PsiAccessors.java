@@ -0,0 +1,78 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-time resolved PSI access for enclosing-function lookup.
+ *
+ * PsiManager, PsiFile and PsiTreeUtil are platform classes present in every IDE, so they are
+ * called directly. The function element types come from language plugins (Java: PsiMethod and
+ * PsiLambdaExpression, Python: PyFunction) and are resolved by name exactly once; missing ones
+ * are remembered as absent, so per-frame lookups never touch Class.forName or getMethod.
+ */
+final class PsiAccessors {
+
+    private static final Logger logger = Logger.getInstance(PsiAccessors.class);
+
+    private static final String[] FUNCTION_ELEMENT_CLASSES = {
+            "com.intellij.psi.PsiMethod",
+            "com.intellij.psi.PsiLambdaExpression",
+            "com.jetbrains.python.psi.PyFunction"
+    };
+
+    private PsiAccessors() {}
+
+    /** Lazily initialised on first use; an empty table means no supported language plugin is loaded. */
+    private static final class Table {
+        static final Class<? extends PsiElement>[] FUNCTION_TYPES = resolveFunctionTypes();
+    }
+
+    static boolean isAvailable() { return Table.FUNCTION_TYPES.length > 0; }
+
+    /** Must be called inside a read action. Returns the enclosing function's range clamped to the document. */
+    @Nullable
+    static TextRange findEnclosingFunctionRange(@NotNull Project project, @NotNull VirtualFile file,
+                                                @NotNull Document document, int line) {
+        if (!isAvailable()) return null;
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (psiFile == null) return null;
+
+        PsiElement elementAt = psiFile.findElementAt(document.getLineStartOffset(line));
+        if (elementAt == null) return null;
+
+        PsiElement functionElement = PsiTreeUtil.getParentOfType(elementAt, Table.FUNCTION_TYPES);
+        if (functionElement == null) return null;
+
+        TextRange range = functionElement.getTextRange();
+        if (range == null) return null;
+        int docLen = document.getTextLength();
+        return new TextRange(Math.min(range.getStartOffset(), docLen), Math.min(range.getEndOffset(), docLen));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends PsiElement>[] resolveFunctionTypes() {
+        List<Class<? extends PsiElement>> resolved = new ArrayList<>();
+        for (String name : FUNCTION_ELEMENT_CLASSES) {
+            try {
+                Class<?> cls = Class.forName(name, false, PsiAccessors.class.getClassLoader());
+                if (PsiElement.class.isAssignableFrom(cls)) resolved.add((Class<? extends PsiElement>) cls);
+            } catch (Throwable t) {
+                logger.debug("PSI function type not available in runtime: " + name);
+            }
+        }
+        return resolved.toArray(new Class[0]);
+    }
+}
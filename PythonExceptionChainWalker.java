@@ -0,0 +1,153 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.xdebugger.frame.XValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Follows Python exception chaining ({@code __cause__} and {@code __context__}) through the
+ * generic XValue API.
+ *
+ * Each link's presentation and children are requested concurrently with its siblings. The walk
+ * stops at the depth or byte budget, stops at an object it already visited (by pydevd object
+ * id), and completes with whatever was collected when the timeout elapses, so it never holds up
+ * the exception result for long.
+ */
+final class PythonExceptionChainWalker {
+
+    private static final Logger logger = Logger.getInstance(PythonExceptionChainWalker.class);
+
+    static final long DEFAULT_TIMEOUT_MS = 1000;
+
+    private final int maxDepth;
+    private final int maxBytes;
+    private final CompletableFuture<ExceptionChain> result = new CompletableFuture<>();
+    private final List<ExceptionChain.Link> links = new ArrayList<>();
+    private final Set<String> seen = new HashSet<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private boolean truncated;
+    private boolean cycleDetected;
+    private int bytes;
+
+    private PythonExceptionChainWalker(int maxDepth, int maxBytes) {
+        this.maxDepth = maxDepth;
+        this.maxBytes = maxBytes;
+    }
+
+    /** Walks the chain below {@code exception}; the future never completes exceptionally. */
+    @NotNull
+    static CompletableFuture<ExceptionChain> walk(@NotNull XValue exception, int maxDepth, int maxBytes, long timeoutMs) {
+        PythonExceptionChainWalker walker = new PythonExceptionChainWalker(maxDepth, maxBytes);
+        String rootId = objectId(exception);
+        if (rootId != null) walker.seen.add(rootId);
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> walker.finish(true), timeoutMs, TimeUnit.MILLISECONDS);
+        walker.expand(exception, 1);
+        return walker.result;
+    }
+
+    /**
+     * Follows {@code __cause__}, and {@code __context__} unless {@code __suppress_context__} is
+     * set ({@code raise X from None}, or any explicit {@code raise X from Y}).
+     */
+    private void expand(XValue exception, int depth) {
+        outstanding.incrementAndGet();
+        XValueRequests.children(exception).thenAccept(children -> {
+            try {
+                XValue cause = children.get("__cause__");
+                XValue context = children.get("__context__");
+                XValue suppressContext = children.get("__suppress_context__");
+                if (cause != null) follow(cause, ExceptionChain.Relation.CAUSE, depth);
+                if (context == null) return;
+                if (suppressContext == null) {
+                    follow(context, ExceptionChain.Relation.CONTEXT, depth);
+                    return;
+                }
+                outstanding.incrementAndGet();
+                XValueRequests.text(suppressContext).thenAccept(flag -> {
+                    try {
+                        if (!"True".equals(flag)) follow(context, ExceptionChain.Relation.CONTEXT, depth);
+                    } finally {
+                        requestDone();
+                    }
+                });
+            } catch (Throwable t) {
+                logger.debug("Python exception chain expand failed: " + t.getMessage());
+            } finally {
+                requestDone();
+            }
+        });
+    }
+
+    private void follow(XValue link, ExceptionChain.Relation relation, int depth) {
+        if (depth > maxDepth) { synchronized (this) { truncated = true; } return; }
+        outstanding.incrementAndGet();
+        XValueRequests.presentation(link).thenAccept(presentation -> {
+            try {
+                if (presentation != null) onLink(link, relation, depth, presentation.type, presentation.text);
+            } catch (Throwable t) {
+                logger.debug("Python exception chain link failed: " + t.getMessage());
+            } finally {
+                requestDone();
+            }
+        });
+    }
+
+    private void onLink(XValue link, ExceptionChain.Relation relation, int depth, @Nullable String type, @Nullable String message) {
+        if (type == null || "NoneType".equals(type) || "None".equals(message)) return;
+        ExceptionChain.Link entry = new ExceptionChain.Link(relation, depth, type, message, Collections.emptyList());
+        String id = objectId(link);
+        synchronized (this) {
+            if (done.get()) return;
+            // Only the same object is a cycle; distinct exceptions with equal type and message are kept
+            if (id != null && !seen.add(id)) { cycleDetected = true; return; }
+            if (bytes >= maxBytes) { truncated = true; return; }
+            links.add(entry);
+            bytes += entry.estimatedBytes();
+        }
+        expand(link, depth + 1);
+    }
+
+    /**
+     * pydevd's id() of the object behind {@code value}, read reflectively from PyDebugValue; null
+     * when the debugger does not expose it, in which case only the depth limit ends a cycle.
+     */
+    @Nullable
+    private static String objectId(XValue value) {
+        try {
+            Object id = value.getClass().getMethod("getId").invoke(value);
+            return id != null && !id.toString().isEmpty() ? id.toString() : null;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private void requestDone() {
+        if (outstanding.decrementAndGet() == 0) finish(false);
+    }
+
+    private void finish(boolean timedOut) {
+        if (!done.compareAndSet(false, true)) return;
+        ExceptionChain chain = new ExceptionChain();
+        synchronized (this) {
+            List<ExceptionChain.Link> ordered = new ArrayList<>(links);
+            ordered.sort((a, b) -> Integer.compare(a.getDepth(), b.getDepth()));
+            chain.getLinks().addAll(ordered);
+            chain.setTruncated(truncated || timedOut);
+            chain.setCycleDetected(cycleDetected);
+        }
+        result.complete(chain);
+    }
+}
@@ -0,0 +1,140 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.xdebugger.frame.XValue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walks a Python traceback ({@code tb_next} chain) asynchronously and iteratively.
+ *
+ * The chain itself is inherently sequential (each {@code tb_next} is only known after its
+ * parent's children arrive), but every entry's details ({@code tb_lineno}, and {@code co_name}
+ * and {@code co_filename} of {@code tb_frame.f_code}) are requested as soon as the entry is seen,
+ * so several frames resolve concurrently while the walk continues. The walk stops after
+ * {@code maxDepth} entries; at the deadline the future completes with the frames resolved so far.
+ * Frames are returned innermost first, like Java stack traces. Every change to the frames is
+ * made under the same lock as the handover and only before it, so callbacks that arrive after the
+ * deadline cannot touch the returned frames.
+ */
+final class PythonTracebackWalker {
+
+    static final int DEFAULT_MAX_DEPTH = 64;
+    static final long DEFAULT_TIMEOUT_MS = 1500;
+
+    private final int maxDepth;
+    private final List<ExceptionFrame> frames = new ArrayList<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private final CompletableFuture<List<ExceptionFrame>> result = new CompletableFuture<>();
+
+    private PythonTracebackWalker(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /** Never completes exceptionally; an empty list means nothing could be read in time. */
+    @NotNull
+    static CompletableFuture<List<ExceptionFrame>> walk(@Nullable XValue traceback, int maxDepth, long timeoutMs) {
+        PythonTracebackWalker walker = new PythonTracebackWalker(maxDepth);
+        if (traceback == null) {
+            walker.finish();
+            return walker.result;
+        }
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(walker::finish, timeoutMs, TimeUnit.MILLISECONDS);
+        walker.visit(traceback, 0);
+        return walker.result;
+    }
+
+    private void visit(XValue traceback, int depth) {
+        outstanding.incrementAndGet();
+        XValueRequests.children(traceback).thenAccept(children -> {
+            try {
+                if (done.get() || isNone(children)) return;
+                ExceptionFrame frame = new ExceptionFrame("", "<module>", null, -1);
+                synchronized (frames) {
+                    if (done.get()) return;
+                    frames.add(frame);
+                }
+                resolve(frame, children);
+                XValue next = children.get("tb_next");
+                if (next != null && depth + 1 < maxDepth) visit(next, depth + 1);
+            } finally {
+                requestDone();
+            }
+        });
+    }
+
+    /** Fills {@code frame} from one traceback entry; the requests run concurrently with the walk. */
+    private void resolve(ExceptionFrame frame, Map<String, XValue> traceback) {
+        outstanding.incrementAndGet();
+        XValueRequests.text(traceback.get("tb_lineno")).thenAccept(line -> {
+            update(() -> frame.setLineNumber(parseLine(line)));
+            requestDone();
+        });
+        XValue pyFrame = traceback.get("tb_frame");
+        if (pyFrame == null) return;
+        outstanding.incrementAndGet();
+        XValueRequests.children(pyFrame).thenCompose(frameChildren -> {
+            XValue code = frameChildren.get("f_code");
+            if (code == null) return CompletableFuture.completedFuture(null);
+            // f_lineno only when the traceback entry had no tb_lineno
+            if (traceback.get("tb_lineno") == null) {
+                outstanding.incrementAndGet();
+                XValueRequests.text(frameChildren.get("f_lineno")).thenAccept(line -> {
+                    update(() -> frame.setLineNumber(parseLine(line)));
+                    requestDone();
+                });
+            }
+            return XValueRequests.children(code).thenCompose(codeChildren -> CompletableFuture.allOf(
+                    XValueRequests.text(codeChildren.get("co_name")).thenAccept(name -> { if (name != null) update(() -> frame.setMethodName(unquote(name))); }),
+                    XValueRequests.text(codeChildren.get("co_filename")).thenAccept(file -> { if (file != null) update(() -> frame.setFileName(unquote(file))); })));
+        }).whenComplete((ignored, error) -> requestDone());
+    }
+
+    /** Applies {@code change} to a frame unless the result has already been handed over. */
+    private void update(Runnable change) {
+        synchronized (frames) {
+            if (!done.get()) change.run();
+        }
+    }
+
+    private void requestDone() {
+        if (outstanding.decrementAndGet() == 0) finish();
+    }
+
+    private void finish() {
+        List<ExceptionFrame> innermostFirst;
+        synchronized (frames) {
+            if (!done.compareAndSet(false, true)) return;
+            innermostFirst = new ArrayList<>(frames.size());
+            for (int i = frames.size() - 1; i >= 0; i--) innermostFirst.add(frames.get(i));
+        }
+        result.complete(Collections.unmodifiableList(innermostFirst));
+    }
+
+    private static boolean isNone(Map<String, XValue> children) {
+        return children.isEmpty() || (!children.containsKey("tb_frame") && !children.containsKey("tb_lineno"));
+    }
+
+    private static int parseLine(@Nullable String text) {
+        if (text == null) return -1;
+        try { return Integer.parseInt(text.trim()); } catch (NumberFormatException e) { return -1; }
+    }
+
+    private static String unquote(String text) {
+        String s = text.trim();
+        if (s.length() >= 2 && (s.charAt(0) == '\'' || s.charAt(0) == '"') && s.charAt(s.length() - 1) == s.charAt(0)) {
+            return s.substring(1, s.length() - 1);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,105 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standalone micro-benchmark: DebugContextRenderer vs. the former recursive
+ * DebugAttacher.appendSnapshotItem on synthetic ~10k-node snapshot trees.
+ *
+ * Run with: java org.samsung.aipp.aippintellij.debugAssist.SnapshotRenderBenchmark
+ */
+public final class SnapshotRenderBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        run("wide (10 x 10 x 10 x 10)", List.of(balancedTree("root", 10, 4)));
+        run("deep chain (10k levels)", List.of(chain(10_000)));
+        run("flat (10k locals)", flat(10_000));
+    }
+
+    private static void run(String shape, List<SnapshotItem> roots) {
+        DebugContextRenderer unbounded = new DebugContextRenderer(
+                DebugContextRenderer.Format.INDENTED, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        DebugContextRenderer budgeted = DebugContextRenderer.indented();
+
+        System.out.println("== " + shape + ", nodes=" + countNodes(roots));
+        measure("legacy recursive", () -> legacyRender(roots));
+        measure("iterative, unbounded", () -> unbounded.renderSnapshot(roots));
+        measure("iterative, default budget", () -> budgeted.renderSnapshot(roots));
+    }
+
+    private static void measure(String label, java.util.function.Supplier<String> render) {
+        String out = null;
+        try {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) out = render.get();
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) out = render.get();
+            long perOpMicros = (System.nanoTime() - start) / MEASURED_ROUNDS / 1_000;
+            System.out.printf("  %-28s %8d us/op  %9d chars%n", label, perOpMicros, out.length());
+        } catch (StackOverflowError e) {
+            System.out.printf("  %-28s StackOverflowError%n", label);
+        }
+    }
+
+    // ---------------- Baseline: former DebugAttacher.appendSnapshotItem ----------------
+
+    private static String legacyRender(List<SnapshotItem> items) {
+        StringBuilder builder = new StringBuilder();
+        for (SnapshotItem item : items) legacyAppend(builder, item, 0);
+        return builder.toString().trim();
+    }
+
+    private static void legacyAppend(StringBuilder builder, SnapshotItem item, int depth) {
+        if (item.getName().equals("value") || item.getName().equals("coder") ||
+            item.getName().equals("hash") || item.getName().equals("hashIsZero")) {
+            return;
+        }
+        String indent = "  ".repeat(depth);
+        builder.append(indent).append(item.getName()).append(": ").append(item.getValue());
+        if (!item.getChildren().isEmpty()) {
+            builder.append("\n").append(indent).append("Children:");
+            for (SnapshotItem child : item.getChildren()) {
+                builder.append("\n");
+                legacyAppend(builder, child, depth + 1);
+            }
+        }
+    }
+
+    // ---------------- Synthetic trees ----------------
+
+    private static SnapshotItem balancedTree(String name, int fanOut, int depth) {
+        List<SnapshotItem> children = new ArrayList<>();
+        if (depth > 0) for (int i = 0; i < fanOut; i++) children.add(balancedTree(name + i, fanOut, depth - 1));
+        return new SnapshotItem(name, "Node", "Node@" + name.hashCode(), children);
+    }
+
+    private static SnapshotItem chain(int length) {
+        SnapshotItem node = new SnapshotItem("leaf", "int", "0", new ArrayList<>());
+        for (int i = length - 1; i > 0; i--) {
+            List<SnapshotItem> children = new ArrayList<>();
+            children.add(node);
+            node = new SnapshotItem("next" + i, "Link", "Link@" + i, children);
+        }
+        return node;
+    }
+
+    private static List<SnapshotItem> flat(int count) {
+        List<SnapshotItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) items.add(new SnapshotItem("local" + i, "int", String.valueOf(i), new ArrayList<>()));
+        return items;
+    }
+
+    private static int countNodes(List<SnapshotItem> items) {
+        int count = 0;
+        ArrayList<SnapshotItem> pending = new ArrayList<>(items);
+        while (!pending.isEmpty()) {
+            SnapshotItem item = pending.remove(pending.size() - 1);
+            count++;
+            pending.addAll(item.getChildren());
+        }
+        return count;
+    }
+}
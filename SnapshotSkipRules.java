@@ -0,0 +1,52 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which snapshot nodes are left out of rendered text.
+ *
+ * Names can be skipped everywhere or only below a parent of a given type (e.g. the internal
+ * fields of java.lang.String). Lookups are plain hash-set probes, so the check costs the same
+ * no matter how many rules are configured.
+ */
+public final class SnapshotSkipRules {
+
+    private final Set<String> globalNames = new HashSet<>();
+    private final Map<String, Set<String>> namesByParentType = new HashMap<>();
+
+    /** String internals that only add noise to rendered snapshots. */
+    public static SnapshotSkipRules defaults() {
+        SnapshotSkipRules rules = new SnapshotSkipRules();
+        String[] stringInternals = {"value", "coder", "hash", "hashIsZero"};
+        rules.skipForType("String", stringInternals);
+        rules.skipForType("java.lang.String", stringInternals);
+        return rules;
+    }
+
+    public static SnapshotSkipRules none() { return new SnapshotSkipRules(); }
+
+    public SnapshotSkipRules skipEverywhere(@NotNull String... names) {
+        globalNames.addAll(Arrays.asList(names));
+        return this;
+    }
+
+    public SnapshotSkipRules skipForType(@NotNull String parentType, @NotNull String... names) {
+        namesByParentType.computeIfAbsent(parentType, t -> new HashSet<>()).addAll(Arrays.asList(names));
+        return this;
+    }
+
+    public boolean shouldSkip(@Nullable String parentType, @Nullable String name) {
+        if (name == null) return false;
+        if (globalNames.contains(name)) return true;
+        if (parentType == null) return false;
+        return namesByParentType.getOrDefault(parentType, Collections.emptySet()).contains(name);
+    }
+}
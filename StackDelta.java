@@ -0,0 +1,42 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StackDelta {
+    public enum Kind { ADDED, CHANGED, REMOVED }
+
+    public static class Change {
+        private final Kind kind;
+        private final int index;
+        private final StackItem item;
+
+        public Change(Kind kind, int index, StackItem item) {
+            this.kind = kind;
+            this.index = index;
+            this.item = item;
+        }
+
+        public Kind getKind() { return kind; }
+        public int getIndex() { return index; }
+        public StackItem getItem() { return item; }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+    private int unchangedCount;
+    private final boolean hasBaseline;
+
+    public StackDelta(boolean hasBaseline) {
+        this.hasBaseline = hasBaseline;
+    }
+
+    public List<Change> getChanges() { return changes; }
+
+    public int getUnchangedCount() { return unchangedCount; }
+    public void setUnchangedCount(int unchangedCount) { this.unchangedCount = unchangedCount; }
+
+    // False for the first stack of a session: every frame is reported as ADDED
+    public boolean hasBaseline() { return hasBaseline; }
+
+    public boolean isEmpty() { return changes.isEmpty(); }
+}
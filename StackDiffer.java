@@ -0,0 +1,108 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the previous call stack so the next pause only resolves frames that changed.
+ *
+ * Frames are identified by (file, method, depth from bottom): stepping into or out of a call
+ * shifts every depth counted from the top, but leaves the callers' depth from the bottom intact.
+ * When a stack was capped before its bottom was reached, depth from the top is used instead.
+ * A frame whose file, method and line are unchanged (and whose text was not modified, saved or
+ * not) reuses the previous StackItem, including its function text. Items without function text,
+ * e.g. because extraction timed out, are never reused, so the next pause tries again.
+ */
+public final class StackDiffer {
+
+    static final class FrameRecord {
+        final String file;
+        final String method;
+        final int line;
+        final long stamp;
+        final StackItem item;
+
+        FrameRecord(String file, String method, int line, long stamp, StackItem item) {
+            this.file = file;
+            this.method = method;
+            this.line = line;
+            this.stamp = stamp;
+            this.item = item;
+        }
+
+        String reuseKey() { return file + '|' + method + '|' + line + '|' + stamp; }
+    }
+
+    private List<FrameRecord> previous = Collections.emptyList();
+    private boolean previousComplete;
+    private boolean hasBaseline;
+    private Map<String, StackItem> reusable = Collections.emptyMap();
+
+    /** Returns the previous StackItem for an unchanged frame, or null if it must be resolved. */
+    @Nullable
+    synchronized StackItem findReusable(@NotNull String file, @NotNull String method, int line, long stamp) {
+        return reusable.get(file + '|' + method + '|' + line + '|' + stamp);
+    }
+
+    /** Diffs {@code current} against the previous stack and makes it the new baseline. */
+    @NotNull
+    synchronized StackDelta update(@NotNull List<FrameRecord> current, boolean complete) {
+        StackDelta delta = new StackDelta(hasBaseline);
+        boolean fromBottom = complete && previousComplete;
+
+        Map<String, Integer> previousIndexByKey = new HashMap<>();
+        for (int i = 0; i < previous.size(); i++) {
+            previousIndexByKey.put(identity(previous.get(i), i, previous.size(), fromBottom), i);
+        }
+
+        boolean[] matched = new boolean[previous.size()];
+        int unchanged = 0;
+        for (int i = 0; i < current.size(); i++) {
+            FrameRecord frame = current.get(i);
+            Integer prevIndex = previousIndexByKey.get(identity(frame, i, current.size(), fromBottom));
+            if (prevIndex == null) {
+                delta.getChanges().add(new StackDelta.Change(StackDelta.Kind.ADDED, i, frame.item));
+            } else {
+                matched[prevIndex] = true;
+                if (previous.get(prevIndex).line != frame.line) {
+                    delta.getChanges().add(new StackDelta.Change(StackDelta.Kind.CHANGED, i, frame.item));
+                } else {
+                    unchanged++;
+                }
+            }
+        }
+        for (int i = 0; i < matched.length; i++) {
+            if (!matched[i]) delta.getChanges().add(new StackDelta.Change(StackDelta.Kind.REMOVED, i, previous.get(i).item));
+        }
+        delta.setUnchangedCount(unchanged);
+
+        Map<String, StackItem> nextReusable = new HashMap<>();
+        for (FrameRecord frame : current) {
+            String function = frame.item.getFunction();
+            if (function != null && !function.isEmpty()) nextReusable.put(frame.reuseKey(), frame.item);
+        }
+        previous = new ArrayList<>(current);
+        previousComplete = complete;
+        reusable = nextReusable;
+        hasBaseline = true;
+        return delta;
+    }
+
+    synchronized void reset() {
+        previous = Collections.emptyList();
+        previousComplete = false;
+        hasBaseline = false;
+        reusable = Collections.emptyMap();
+    }
+
+    private static String identity(FrameRecord frame, int index, int size, boolean fromBottom) {
+        int depth = fromBottom ? size - 1 - index : index;
+        return frame.file + '|' + frame.method + '|' + depth;
+    }
+}
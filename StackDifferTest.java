@@ -0,0 +1,107 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StackDifferTest {
+
+    @Test
+    public void firstStackIsAllAddedWithoutBaseline() {
+        StackDelta delta = new StackDiffer().update(Arrays.asList(frame("Foo.java", "foo", 10), frame("Main.java", "main", 5)), true);
+
+        assertFalse(delta.hasBaseline());
+        assertEquals(2, delta.getChanges().size());
+        assertEquals(StackDelta.Kind.ADDED, delta.getChanges().get(0).getKind());
+        assertEquals(StackDelta.Kind.ADDED, delta.getChanges().get(1).getKind());
+    }
+
+    @Test
+    public void stepIntoKeepsCallersByDepthFromBottom() {
+        StackDiffer differ = new StackDiffer();
+        differ.update(Arrays.asList(frame("Foo.java", "foo", 10), frame("Main.java", "main", 5)), true);
+
+        StackDelta delta = differ.update(Arrays.asList(
+                frame("Bar.java", "bar", 3), frame("Foo.java", "foo", 11), frame("Main.java", "main", 5)), true);
+
+        assertTrue(delta.hasBaseline());
+        assertEquals(1, delta.getUnchangedCount());
+        assertEquals(2, delta.getChanges().size());
+        assertChange(delta.getChanges().get(0), StackDelta.Kind.ADDED, 0);
+        assertChange(delta.getChanges().get(1), StackDelta.Kind.CHANGED, 1);
+    }
+
+    @Test
+    public void stepOutRemovesOnlyTheReturnedFrame() {
+        StackDiffer differ = new StackDiffer();
+        differ.update(Arrays.asList(
+                frame("Bar.java", "bar", 3), frame("Foo.java", "foo", 11), frame("Main.java", "main", 5)), true);
+
+        StackDelta delta = differ.update(Arrays.asList(frame("Foo.java", "foo", 11), frame("Main.java", "main", 5)), true);
+
+        assertEquals(2, delta.getUnchangedCount());
+        assertEquals(1, delta.getChanges().size());
+        assertChange(delta.getChanges().get(0), StackDelta.Kind.REMOVED, 0);
+    }
+
+    @Test
+    public void cappedStackFallsBackToDepthFromTop() {
+        StackDiffer differ = new StackDiffer();
+        differ.update(Arrays.asList(frame("Foo.java", "foo", 10), frame("Main.java", "main", 5)), false);
+
+        StackDelta delta = differ.update(Arrays.asList(frame("Foo.java", "foo", 12), frame("Main.java", "main", 5)), false);
+
+        assertEquals(1, delta.getUnchangedCount());
+        assertEquals(1, delta.getChanges().size());
+        assertChange(delta.getChanges().get(0), StackDelta.Kind.CHANGED, 0);
+    }
+
+    @Test
+    public void unchangedFramesWithTextAreReusable() {
+        StackDiffer differ = new StackDiffer();
+        StackDiffer.FrameRecord foo = frame("Foo.java", "foo", 10);
+        differ.update(Arrays.asList(foo), true);
+
+        assertSame(foo.item, differ.findReusable("Foo.java", "foo", 10, 1));
+        assertNull(differ.findReusable("Foo.java", "foo", 11, 1));
+        assertNull(differ.findReusable("Foo.java", "foo", 10, 2));
+    }
+
+    @Test
+    public void framesWithoutTextAreNotReused() {
+        StackDiffer differ = new StackDiffer();
+        differ.update(Arrays.asList(new StackDiffer.FrameRecord("Foo.java", "foo", 10, 1,
+                new StackItem("Foo.java", 10, "", "java"))), true);
+
+        assertNull(differ.findReusable("Foo.java", "foo", 10, 1));
+    }
+
+    @Test
+    public void resetDropsTheBaseline() {
+        StackDiffer differ = new StackDiffer();
+        List<StackDiffer.FrameRecord> stack = Arrays.asList(frame("Foo.java", "foo", 10));
+        differ.update(stack, true);
+        differ.reset();
+
+        StackDelta delta = differ.update(stack, true);
+
+        assertFalse(delta.hasBaseline());
+        assertChange(delta.getChanges().get(0), StackDelta.Kind.ADDED, 0);
+    }
+
+    private static StackDiffer.FrameRecord frame(String file, String method, int line) {
+        return new StackDiffer.FrameRecord(file, method, line, 1, new StackItem(file, line, "void " + method + "() {}", "java"));
+    }
+
+    private static void assertChange(StackDelta.Change change, StackDelta.Kind kind, int index) {
+        assertEquals(kind, change.getKind());
+        assertEquals(index, change.getIndex());
+    }
+}
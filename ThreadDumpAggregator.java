@@ -0,0 +1,94 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compresses many thread stacks into a thread-dump summary.
+ *
+ * Each stack first has its recursion folded: a run of identical consecutive frames becomes one
+ * entry with a repeat count. The folded frame sequence is hashed and threads with an identical
+ * sequence are grouped, keeping a count and a capped sample of thread names. Groups are ordered
+ * by thread count, largest first, which puts the busiest thread pools at the top.
+ */
+public final class ThreadDumpAggregator {
+
+    public static final int DEFAULT_MAX_THREAD_NAMES = 10;
+
+    private ThreadDumpAggregator() {}
+
+    @NotNull
+    public static ThreadDumpSummary aggregate(@NotNull List<ThreadStack> threads) {
+        return aggregate(threads, DEFAULT_MAX_THREAD_NAMES);
+    }
+
+    @NotNull
+    public static ThreadDumpSummary aggregate(@NotNull List<ThreadStack> threads, int maxThreadNames) {
+        Map<Signature, ThreadDumpSummary.Group> groups = new LinkedHashMap<>();
+        for (ThreadStack thread : threads) {
+            List<ThreadDumpSummary.FoldedFrame> folded = fold(thread.getFrames());
+            ThreadDumpSummary.Group group = groups.computeIfAbsent(new Signature(folded), s -> new ThreadDumpSummary.Group(folded));
+            group.setThreadCount(group.getThreadCount() + 1);
+            if (group.getThreadNames().size() < maxThreadNames) group.getThreadNames().add(thread.getThreadName());
+        }
+
+        ThreadDumpSummary summary = new ThreadDumpSummary();
+        summary.setTotalThreads(threads.size());
+        summary.getGroups().addAll(groups.values());
+        summary.getGroups().sort((a, b) -> Integer.compare(b.getThreadCount(), a.getThreadCount()));
+        return summary;
+    }
+
+    /** Folds runs of identical consecutive frames (same file and line) into one entry. */
+    @NotNull
+    static List<ThreadDumpSummary.FoldedFrame> fold(@NotNull List<StackItem> frames) {
+        List<ThreadDumpSummary.FoldedFrame> folded = new ArrayList<>();
+        int i = 0;
+        while (i < frames.size()) {
+            StackItem frame = frames.get(i);
+            int run = 1;
+            while (i + run < frames.size() && sameLocation(frame, frames.get(i + run))) run++;
+            folded.add(new ThreadDumpSummary.FoldedFrame(frame, run));
+            i += run;
+        }
+        return folded;
+    }
+
+    private static boolean sameLocation(StackItem a, StackItem b) {
+        return a.getLine() == b.getLine() && a.getFilePath().equals(b.getFilePath());
+    }
+
+    /** Folded frame sequence with a precomputed hash, so grouping costs one hash probe per thread. */
+    private static final class Signature {
+        private final List<ThreadDumpSummary.FoldedFrame> frames;
+        private final int hash;
+
+        Signature(List<ThreadDumpSummary.FoldedFrame> frames) {
+            this.frames = frames;
+            int h = 1;
+            for (ThreadDumpSummary.FoldedFrame f : frames) {
+                h = 31 * h + f.getFrame().getFilePath().hashCode();
+                h = 31 * h + f.getFrame().getLine();
+                h = 31 * h + f.getRepeat();
+            }
+            this.hash = h;
+        }
+
+        @Override public int hashCode() { return hash; }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Signature)) return false;
+            Signature other = (Signature) o;
+            if (hash != other.hash || frames.size() != other.frames.size()) return false;
+            for (int i = 0; i < frames.size(); i++) {
+                ThreadDumpSummary.FoldedFrame a = frames.get(i), b = other.frames.get(i);
+                if (a.getRepeat() != b.getRepeat() || !sameLocation(a.getFrame(), b.getFrame())) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ThreadDumpAggregatorTest {
+
+    @Test
+    public void recursionIsFoldedIntoOneFrameWithRepeatCount() {
+        List<ThreadDumpSummary.FoldedFrame> folded = ThreadDumpAggregator.fold(Arrays.asList(
+                item("Fib.java", 7), item("Fib.java", 7), item("Fib.java", 7), item("Main.java", 3)));
+
+        assertEquals(2, folded.size());
+        assertEquals(7, folded.get(0).getFrame().getLine());
+        assertEquals(3, folded.get(0).getRepeat());
+        assertEquals(1, folded.get(1).getRepeat());
+    }
+
+    @Test
+    public void sameLineInDifferentFilesIsNotFolded() {
+        List<ThreadDumpSummary.FoldedFrame> folded = ThreadDumpAggregator.fold(Arrays.asList(item("A.java", 7), item("B.java", 7)));
+
+        assertEquals(2, folded.size());
+    }
+
+    @Test
+    public void identicalStacksAreGroupedLargestFirst() {
+        List<ThreadStack> threads = new ArrayList<>();
+        threads.add(thread("main", item("Main.java", 3)));
+        for (int i = 0; i < 3; i++) threads.add(thread("pool-" + i, item("Worker.java", 20), item("Thread.java", 1)));
+
+        ThreadDumpSummary summary = ThreadDumpAggregator.aggregate(threads);
+
+        assertEquals(4, summary.getTotalThreads());
+        assertEquals(2, summary.getGroups().size());
+        assertEquals(3, summary.getGroups().get(0).getThreadCount());
+        assertEquals(Arrays.asList("pool-0", "pool-1", "pool-2"), summary.getGroups().get(0).getThreadNames());
+        assertEquals(1, summary.getGroups().get(1).getThreadCount());
+    }
+
+    @Test
+    public void differentRecursionDepthsAreSeparateGroups() {
+        ThreadDumpSummary summary = ThreadDumpAggregator.aggregate(Arrays.asList(
+                thread("a", item("Fib.java", 7), item("Fib.java", 7)),
+                thread("b", item("Fib.java", 7), item("Fib.java", 7), item("Fib.java", 7))));
+
+        assertEquals(2, summary.getGroups().size());
+    }
+
+    @Test
+    public void threadNamesAreCappedButCounted() {
+        List<ThreadStack> threads = new ArrayList<>();
+        for (int i = 0; i < 25; i++) threads.add(thread("pool-" + i, item("Worker.java", 20)));
+
+        ThreadDumpSummary summary = ThreadDumpAggregator.aggregate(threads, 5);
+
+        assertEquals(25, summary.getGroups().get(0).getThreadCount());
+        assertEquals(5, summary.getGroups().get(0).getThreadNames().size());
+    }
+
+    @Test
+    public void renderedDumpShowsRepeatCount() {
+        ThreadDumpSummary summary = ThreadDumpAggregator.aggregate(Arrays.asList(
+                thread("main", item("Fib.java", 7), item("Fib.java", 7), item("Main.java", 3))));
+
+        assertEquals("[1 threads] main\n  Fib.java:7 x2\n  Main.java:3", DebugContextRenderer.indented().renderThreadDump(summary));
+    }
+
+    private static StackItem item(String file, int line) {
+        return new StackItem(file, line, "", "java");
+    }
+
+    private static ThreadStack thread(String name, StackItem... frames) {
+        return new ThreadStack(name, false, Arrays.asList(frames), true);
+    }
+}
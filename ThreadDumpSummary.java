@@ -0,0 +1,48 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ThreadDumpSummary {
+
+    public static class FoldedFrame {
+        private final StackItem frame;
+        private final int repeat;
+
+        public FoldedFrame(StackItem frame, int repeat) {
+            this.frame = frame;
+            this.repeat = repeat;
+        }
+
+        public StackItem getFrame() { return frame; }
+
+        // Number of consecutive identical frames this entry stands for (recursion depth)
+        public int getRepeat() { return repeat; }
+    }
+
+    public static class Group {
+        private final List<FoldedFrame> frames;
+        private final List<String> threadNames = new ArrayList<>();
+        private int threadCount;
+
+        public Group(List<FoldedFrame> frames) {
+            this.frames = frames;
+        }
+
+        public List<FoldedFrame> getFrames() { return frames; }
+
+        // Capped sample of the thread names; getThreadCount() is the real total
+        public List<String> getThreadNames() { return threadNames; }
+
+        public int getThreadCount() { return threadCount; }
+        public void setThreadCount(int threadCount) { this.threadCount = threadCount; }
+    }
+
+    private final List<Group> groups = new ArrayList<>();
+    private int totalThreads;
+
+    public List<Group> getGroups() { return groups; }
+
+    public int getTotalThreads() { return totalThreads; }
+    public void setTotalThreads(int totalThreads) { this.totalThreads = totalThreads; }
+}
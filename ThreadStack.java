@@ -0,0 +1,30 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.List;
+
+public class ThreadStack {
+    private String threadName;
+    private boolean active;
+    private List<StackItem> frames;
+    private boolean complete;
+
+    public ThreadStack(String threadName, boolean active, List<StackItem> frames, boolean complete) {
+        this.threadName = threadName;
+        this.active = active;
+        this.frames = frames;
+        this.complete = complete;
+    }
+
+    public String getThreadName() { return threadName; }
+    public void setThreadName(String threadName) { this.threadName = threadName; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+
+    public List<StackItem> getFrames() { return frames; }
+    public void setFrames(List<StackItem> frames) { this.frames = frames; }
+
+    // False when the frames were cut by the per-thread share of the frame budget
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+}
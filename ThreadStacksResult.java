@@ -0,0 +1,23 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ThreadStacksResult {
+    private final List<ThreadStack> threads = new ArrayList<>();
+    private int totalThreads;
+    private int framesCollected;
+    private int threadsOverBudget;
+
+    public List<ThreadStack> getThreads() { return threads; }
+
+    public int getTotalThreads() { return totalThreads; }
+    public void setTotalThreads(int totalThreads) { this.totalThreads = totalThreads; }
+
+    public int getFramesCollected() { return framesCollected; }
+    public void setFramesCollected(int framesCollected) { this.framesCollected = framesCollected; }
+
+    // Threads listed without frames because the global frame budget was spent
+    public int getThreadsOverBudget() { return threadsOverBudget; }
+    public void setThreadsOverBudget(int threadsOverBudget) { this.threadsOverBudget = threadsOverBudget; }
+}
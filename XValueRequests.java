@@ -0,0 +1,118 @@
+package org.samsung.aipp.aippintellij.debugAssist;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.xdebugger.frame.*;
+import com.intellij.xdebugger.frame.presentation.XValuePresentation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Future-based wrappers around the callback-style XValue API. Every future completes exactly
+ * once and never exceptionally: errors yield an empty map or a null presentation, so callers can
+ * compose requests without blocking and without special error paths.
+ */
+final class XValueRequests {
+
+    private static final Logger logger = Logger.getInstance(XValueRequests.class);
+
+    /** How long a value may keep showing its placeholder before presentation gives up. */
+    static final long PRESENTATION_TIMEOUT_MS = 2_000;
+
+    private XValueRequests() {}
+
+    /** Type and rendered text of a value, as reported by its first real presentation. */
+    static final class Presentation {
+        final String type;
+        final String text;
+        final boolean hasChildren;
+
+        Presentation(@Nullable String type, @Nullable String text, boolean hasChildren) {
+            this.type = type;
+            this.text = text;
+            this.hasChildren = hasChildren;
+        }
+    }
+
+    /**
+     * True for the interim text a value shows while the debugger is still computing it
+     * ("Collecting data…", with either a Unicode or an ASCII ellipsis).
+     */
+    static boolean isPlaceholder(@Nullable String text) {
+        if (text == null) return false;
+        String trimmed = text.trim();
+        return trimmed.equals("Collecting data\u2026") || trimmed.equals("Collecting data...");
+    }
+
+    /** All children of {@code container} by name, gathered across pages until the last one. */
+    @NotNull
+    static CompletableFuture<Map<String, XValue>> children(@NotNull XValueContainer container) {
+        CompletableFuture<Map<String, XValue>> result = new CompletableFuture<>();
+        Map<String, XValue> children = new LinkedHashMap<>();
+        try {
+            container.computeChildren(new XCompositeNode() {
+                @Override
+                public void addChildren(@NotNull XValueChildrenList list, boolean last) {
+                    synchronized (children) {
+                        for (int i = 0; i < list.size(); i++) children.putIfAbsent(list.getName(i), list.getValue(i));
+                    }
+                    if (last) complete();
+                }
+                @Override public void tooManyChildren(int remaining) { complete(); }
+                @Override public void setAlreadySorted(boolean alreadySorted) {}
+                @Override public void setErrorMessage(@NotNull String errorMessage) { complete(); }
+                @Override public void setErrorMessage(@NotNull String s, @Nullable XDebuggerTreeNodeHyperlink link) { complete(); }
+                @Override public void setMessage(@NotNull String s, @Nullable Icon icon, @NotNull com.intellij.ui.SimpleTextAttributes attrs, @Nullable XDebuggerTreeNodeHyperlink link) {}
+
+                private void complete() {
+                    synchronized (children) { result.complete(new LinkedHashMap<>(children)); }
+                }
+            });
+        } catch (Throwable t) {
+            logger.debug("computeChildren failed: " + t.getMessage());
+            result.complete(new LinkedHashMap<>());
+        }
+        return result;
+    }
+
+    /**
+     * Presentation of {@code value}. Placeholder presentations are skipped; completes with the first
+     * real one, or with null if the value cannot be presented within PRESENTATION_TIMEOUT_MS.
+     */
+    @NotNull
+    static CompletableFuture<Presentation> presentation(@Nullable XValue value) {
+        CompletableFuture<Presentation> result = new CompletableFuture<>();
+        if (value == null) { result.complete(null); return result; }
+        try {
+            value.computePresentation(new XValueNode() {
+                @Override
+                public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
+                    report(presentation.getType(), DebugDataCollector.renderPresentationText(presentation), hasChildren);
+                }
+                @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
+                @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String text, boolean hasChildren) {
+                    report(type, text, hasChildren);
+                }
+
+                private void report(@Nullable String type, @Nullable String text, boolean hasChildren) {
+                    if (!isPlaceholder(text)) result.complete(new Presentation(type, text, hasChildren));
+                }
+            }, XValuePlace.TREE);
+        } catch (Throwable t) {
+            logger.debug("computePresentation failed: " + t.getMessage());
+            result.complete(null);
+        }
+        return result.completeOnTimeout(null, PRESENTATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Rendered text of {@code value}, or null. */
+    @NotNull
+    static CompletableFuture<String> text(@Nullable XValue value) {
+        return presentation(value).thenApply(p -> p != null ? p.text : null);
+    }
+}
@@ -1,7 +1,7 @@
 package org.samsung.aipp.aippintellij.debugAssist;
 
 public class ContextItem {
-    public enum Type { SNAPSHOT, STACK, EXCEPTION }
+    public enum Type { SNAPSHOT, STACK, EXCEPTION, THREADS, CONTENTION, FRAMES, BUNDLE }
 
     private Object data;
     private boolean hasData;
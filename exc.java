@@ -1,11 +1,17 @@
 package org.samsung.aipp.aippintellij.debugAssist;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ExceptionDetail {
     private String message;
     private String type;
     private String stackTrace;
     private String filePath;
     private int lineNumber;
+    private List<ExceptionFrame> frames = new ArrayList<>();
+    private ExceptionChain chain;
+    private boolean partial;
 
     public ExceptionDetail(String message, String type, String stackTrace, String filePath, int lineNumber) {
         this.message = message;
@@ -15,6 +21,15 @@ public class ExceptionDetail {
         this.lineNumber = lineNumber;
     }
 
+    /** Copy for payload shaping; frames are shared, the chain is copied so it can be trimmed independently. */
+    public ExceptionDetail copy() {
+        ExceptionDetail copy = new ExceptionDetail(message, type, stackTrace, filePath, lineNumber);
+        copy.frames = frames;
+        copy.chain = chain != null ? chain.copy() : null;
+        copy.partial = partial;
+        return copy;
+    }
+
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
 
@@ -29,4 +44,16 @@ public class ExceptionDetail {
 
     public int getLineNumber() { return lineNumber; }
     public void setLineNumber(int lineNumber) { this.lineNumber = lineNumber; }
+
+    // Structured frames where the debugger can read them natively (Java); empty otherwise
+    public List<ExceptionFrame> getFrames() { return frames; }
+    public void setFrames(List<ExceptionFrame> frames) { this.frames = frames; }
+
+    // Causes, suppressed and context exceptions; null when none were collected
+    public ExceptionChain getChain() { return chain; }
+    public void setChain(ExceptionChain chain) { this.chain = chain; }
+
+    // True when the collection deadline passed before every field arrived
+    public boolean isPartial() { return partial; }
+    public void setPartial(boolean partial) { this.partial = partial; }
 }
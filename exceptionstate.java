@@ -1,36 +1,144 @@
 package org.samsung.aipp.aippintellij.debugAssist;
 
 import org.dell.Constants;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.xdebugger.frame.XStackFrame;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+/**
+ * Collects the fields of one exception as they arrive and publishes the ExceptionDetail exactly once.
+ *
+ * Callers {@link #expect} each field before requesting it, {@link #offer} it when it arrives and
+ * {@link #seal} once no more fields will be requested. The detail is published when every expected
+ * field has arrived, or at the deadline with whatever has arrived (marked partial); a CAS on the
+ * state guarantees a single publication either way. Fields still missing at the deadline are
+ * counted in {@link Metrics}.
+ */
 public class ExceptionState {
+
+    private static final Logger logger = Logger.getInstance(ExceptionState.class);
+
+    public static final long DEFAULT_DEADLINE_MS = 2000;
+
+    public enum State { INIT, MESSAGE_READY, STACK_READY, COMPLETE }
+
+    public enum Field { TYPE, MESSAGE, STACK_TRACE }
+
     private final AtomicReference<State> state = new AtomicReference<>(State.INIT);
-    private String message;
-    private String detailMessage;
-    private String stackTrace;
+    private final Set<Field> expected = EnumSet.noneOf(Field.class);
+    private final Set<Field> arrived = EnumSet.noneOf(Field.class);
+    private volatile String type = "unknown";
+    private volatile String detailMessage;
+    private volatile String stackTrace;
+    private boolean sealed;
     private final Object descriptorOrValue;
-    private final String type;
     private final XStackFrame frame;
+    private final Consumer<ExceptionDetail> onComplete;
+    private final long startedAt = System.currentTimeMillis();
+    private ScheduledFuture<?> deadline;
 
-    public enum State { INIT, MESSAGE_READY, STACK_READY, COMPLETE }
-
-    public ExceptionState(Object descriptorOrValue, String type, XStackFrame frame) {
+    public ExceptionState(Object descriptorOrValue, XStackFrame frame, Consumer<ExceptionDetail> onComplete) {
         this.descriptorOrValue = descriptorOrValue;
-        this.type = type;
         this.frame = frame;
+        this.onComplete = onComplete;
+    }
+
+    /** Arms the deadline; at expiry the detail is published with the fields received so far. */
+    public ExceptionState start(long deadlineMs) {
+        ScheduledFuture<?> scheduled = AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(() -> complete(true), deadlineMs, TimeUnit.MILLISECONDS);
+        synchronized (this) { deadline = scheduled; }
+        if (isComplete()) scheduled.cancel(false);
+        return this;
     }
 
     public boolean isComplete() { return state.get() == State.COMPLETE; }
-    public void setMessage(String msg) { this.message = msg; updateState(); }
-    public void setDetailMessage(String msg) { this.detailMessage = msg; updateState(); }
-    public void setStackTrace(String trace) { this.stackTrace = clipStackTrace(trace); updateState(); }
+
+    public synchronized boolean isExpected(Field field) { return expected.contains(field); }
+
+    public synchronized void expect(Field field) {
+        if (!sealed) expected.add(field);
+    }
+
+    /** Records an arrived field; {@code value} may be null when the field could not be read. */
+    public void offer(Field field, String value) {
+        boolean ready;
+        synchronized (this) {
+            if (isComplete() || !expected.contains(field) || !arrived.add(field)) return;
+            if (value != null) {
+                switch (field) {
+                    case TYPE: type = value; break;
+                    case MESSAGE: detailMessage = value; break;
+                    case STACK_TRACE: stackTrace = clipStackTrace(value); break;
+                }
+            }
+            updateState();
+            ready = sealed && arrived.containsAll(expected);
+        }
+        if (ready) complete(false);
+    }
+
+    /** No further fields will be expected; publishes immediately if all have already arrived. */
+    public void seal() {
+        boolean ready;
+        synchronized (this) {
+            sealed = true;
+            ready = arrived.containsAll(expected);
+        }
+        if (ready) complete(false);
+    }
+
+    /**
+     * Abandons the collection without publishing (e.g. the value turned out not to be an exception).
+     * Returns false when the detail was already published, e.g. by the deadline; the caller must
+     * then not report anything else.
+     */
+    public boolean cancel() {
+        if (state.getAndSet(State.COMPLETE) == State.COMPLETE) return false;
+        cancelDeadline();
+        return true;
+    }
 
     private void updateState() {
-        if (message != null && stackTrace != null) state.set(State.COMPLETE);
-        else if (message != null) state.set(State.MESSAGE_READY);
-        else if (stackTrace != null) state.set(State.STACK_READY);
+        state.updateAndGet(current -> {
+            if (current == State.COMPLETE) return current;
+            if (detailMessage != null && stackTrace == null) return State.MESSAGE_READY;
+            if (stackTrace != null && detailMessage == null) return State.STACK_READY;
+            return current;
+        });
+    }
+
+    private void complete(boolean timedOut) {
+        if (state.getAndSet(State.COMPLETE) == State.COMPLETE) return;
+        cancelDeadline();
+        Set<Field> late;
+        synchronized (this) {
+            late = EnumSet.noneOf(Field.class);
+            late.addAll(expected);
+            late.removeAll(arrived);
+        }
+        Metrics.record(late, timedOut, System.currentTimeMillis() - startedAt);
+        if (!late.isEmpty()) logger.debug("Exception published without " + late + " after " + (System.currentTimeMillis() - startedAt) + " ms");
+        try {
+            ExceptionDetail detail = buildExceptionDetail();
+            detail.setPartial(!late.isEmpty());
+            onComplete.accept(detail);
+        } catch (Throwable t) {
+            logger.warn("ExceptionState completion failed: " + t.getMessage());
+        }
+    }
+
+    private synchronized void cancelDeadline() {
+        if (deadline != null) deadline.cancel(false);
     }
 
     private String clipStackTrace(String stackTrace) {
@@ -40,14 +148,32 @@ public class ExceptionState {
     }
 
     public ExceptionDetail buildExceptionDetail() {
-        String combinedMessage = message;
-        if (detailMessage != null && !detailMessage.isEmpty()) {
-            combinedMessage = message + " | detailMessage: " + detailMessage;
-        }
         String filePath = frame.getSourcePosition() != null ?
                 frame.getSourcePosition().getFile().getPath() : "unknown";
         int lineNumber = frame.getSourcePosition() != null ?
                 frame.getSourcePosition().getLine() : -1;
-        return new ExceptionDetail(combinedMessage, type, stackTrace, filePath, lineNumber);
+        return new ExceptionDetail(detailMessage, type, stackTrace, filePath, lineNumber);
+    }
+
+    /** Process-wide counters: how often collections completed, hit the deadline, and which fields were late. */
+    public static final class Metrics {
+        private static final AtomicLong completed = new AtomicLong();
+        private static final AtomicLong timedOut = new AtomicLong();
+        private static final AtomicLong totalMillis = new AtomicLong();
+        private static final AtomicLongArray lateByField = new AtomicLongArray(Field.values().length);
+
+        private Metrics() {}
+
+        static void record(Set<Field> late, boolean wasTimedOut, long millis) {
+            completed.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            if (wasTimedOut) timedOut.incrementAndGet();
+            for (Field field : late) lateByField.incrementAndGet(field.ordinal());
+        }
+
+        public static long getCompleted() { return completed.get(); }
+        public static long getTimedOut() { return timedOut.get(); }
+        public static long getLateCount(Field field) { return lateByField.get(field.ordinal()); }
+        public static long getAverageMillis() { long n = completed.get(); return n == 0 ? 0 : totalMillis.get() / n; }
     }
 }
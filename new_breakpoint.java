@@ -6,6 +6,8 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.TextRange;
@@ -32,6 +34,13 @@ public class BreakpointCompletionProvider extends CompletionContributor {
 
     private static final Logger logger = Logger.getInstance(BreakpointCompletionProvider.class);
 
+    private static final CompletionRequestCoalescer REQUEST_COALESCER = new CompletionRequestCoalescer();
+
+    // Debug context is sent as compact text; each section gets its own budget
+    private static final DebugContextRenderer PAYLOAD_RENDERER = new DebugContextRenderer(
+            DebugContextRenderer.Format.INDENTED, 8 * 1024, 2 * 1024);
+    private static final int MAX_EXCEPTION_CHAIN_PAYLOAD_BYTES = 2 * 1024;
+
     public BreakpointCompletionProvider() {
 
         extend(CompletionType.BASIC,
@@ -109,61 +118,31 @@ public class BreakpointCompletionProvider extends CompletionContributor {
                             }
                         }
 
-                        String enclosingFunctionText = "";
-                        if (enclosingElement != null) {
-                            try {
-                                TextRange funcRange = enclosingElement.getTextRange();
-                                if (funcRange != null) {
-                                    int startOffset = funcRange.getStartOffset();
-                                    int endOffset = funcRange.getEndOffset();
-                                    int docLen = mainDocument.getTextLength();
-                                    startOffset = Math.max(0, Math.min(startOffset, docLen));
-                                    endOffset = Math.max(0, Math.min(endOffset, docLen));
-                                    enclosingFunctionText = mainDocument.getText(new TextRange(startOffset, endOffset));
-                                } else {
-                                    enclosingFunctionText = enclosingElement.getText();
-                                }
-                            } catch (Throwable t) {
-                                logger.warn("[DEBUG] Could not extract enclosing function text: " + t.getMessage());
-                                enclosingFunctionText = "";
-                            }
-                        }
-
-                        String fileContext = containingFile.getText();
                         String filePath = (containingFile.getVirtualFile() != null) ? containingFile.getVirtualFile().getPath() : "";
-
                         boolean debugSession = isInDebugSession(project);
+                        String languageId = fragment.getLanguage() != null ? fragment.getLanguage().getID() : "UNKNOWN";
 
-                        String callstack = "", snapshot = "", exception = "";
+                        // Identical requests typed in quick succession share one server call. The document stamp
+                        // stands for the file and function text, the collector version for the debug sections.
+                        String requestKey = filePath + ":" + (lineNumber + 1) + ":" + languageId + ":" + debugSession + ":"
+                                + mainDocument.getModificationStamp() + ":" + DebugDataCollector.getInstance().getVersion()
+                                + ":" + currentLine;
 
-                        if (debugSession) try {
-                            DebugDataCollector collector = DebugDataCollector.getInstance();
-                            snapshot = collector.getSnapshot() != null ? collector.getSnapshot().toString() : "";
-                            callstack = collector.getCallStack() != null ? collector.getCallStack().toString() : "";
-                            ExceptionDetail ex = collector.getExceptionDetail();
-                            exception = (ex != null) ? ex.toString() : "";
+                        // The payload is built only once the debounce has passed, so superseded requests cost nothing
+                        PsiElement enclosing = enclosingElement;
+                        List<String> response;
+                        try {
+                            response = ProgressIndicatorUtils.awaitWithCheckCanceled(REQUEST_COALESCER.submit(
+                                    parameters.getEditor(), requestKey,
+                                    () -> ChatApiCallService.fetchServerSuggestions(buildPayload(containingFile, mainDocument,
+                                            enclosing, currentLine, languageId, filePath, lineNumber + 1, debugSession), SERVER_TIMEOUT)));
+                        } catch (ProcessCanceledException pce) {
+                            throw pce;
                         } catch (Throwable t) {
-                            logger.info("[DEBUG] Could not collect debug session data: " + t.getMessage());
+                            logger.warn("[DEBUG] Completion request failed: " + t.getMessage());
+                            return;
                         }
 
-                        String languageId = fragment.getLanguage() != null ? fragment.getLanguage().getID() : "UNKNOWN";
-
-                        BreakpointCompletionPayload payload = new BreakpointCompletionPayload(
-                                "conditional_breakpoint",
-                                currentLine,
-                                enclosingFunctionText,
-                                fileContext,
-                                languageId,
-                                filePath,
-                                lineNumber + 1,
-                                debugSession,
-                                callstack,
-                                snapshot,
-                                exception
-                        );
-
-                        List<String> response = ChatApiCallService.fetchServerSuggestions(payload, SERVER_TIMEOUT);
-
                         if (response == null || response.isEmpty()) return;
 
                         for (String suggestion : response) {
@@ -209,6 +188,61 @@ public class BreakpointCompletionProvider extends CompletionContributor {
 
     }
 
+    private static BreakpointCompletionPayload buildPayload(PsiFile containingFile, Document mainDocument, PsiElement enclosingElement,
+                                                            String currentLine, String languageId, String filePath,
+                                                            int lineNumber, boolean debugSession) {
+        String enclosingFunctionText = ApplicationManager.getApplication().runReadAction(
+                (Computable<String>) () -> enclosingFunctionText(mainDocument, enclosingElement));
+        String fileContext = ApplicationManager.getApplication().runReadAction((Computable<String>) containingFile::getText);
+
+        String callstack = "", snapshot = "", exception = "";
+
+        if (debugSession) try {
+            DebugDataCollector collector = DebugDataCollector.getInstance();
+            snapshot = PAYLOAD_RENDERER.renderSnapshot(collector.getSnapshot());
+            callstack = PAYLOAD_RENDERER.renderStack(collector.getCallStack());
+            ExceptionDetail exceptionDetail = collector.getExceptionDetail();
+            if (exceptionDetail != null && exceptionDetail.getChain() != null) {
+                // Trim a copy: the collected detail is shared with other readers
+                exceptionDetail = exceptionDetail.copy();
+                exceptionDetail.getChain().trimTo(MAX_EXCEPTION_CHAIN_PAYLOAD_BYTES);
+            }
+            exception = PAYLOAD_RENDERER.renderException(exceptionDetail);
+        } catch (Throwable t) {
+            logger.info("[DEBUG] Could not collect debug session data: " + t.getMessage());
+        }
+
+        return new BreakpointCompletionPayload(
+                "conditional_breakpoint",
+                currentLine,
+                enclosingFunctionText,
+                fileContext,
+                languageId,
+                filePath,
+                lineNumber,
+                debugSession,
+                callstack,
+                snapshot,
+                exception
+        );
+    }
+
+    // Must be called inside a read action
+    private static String enclosingFunctionText(Document mainDocument, PsiElement enclosingElement) {
+        if (enclosingElement == null) return "";
+        try {
+            TextRange funcRange = enclosingElement.getTextRange();
+            if (funcRange == null) return enclosingElement.getText();
+            int docLen = mainDocument.getTextLength();
+            int startOffset = Math.max(0, Math.min(funcRange.getStartOffset(), docLen));
+            int endOffset = Math.max(0, Math.min(funcRange.getEndOffset(), docLen));
+            return mainDocument.getText(new TextRange(startOffset, endOffset));
+        } catch (Throwable t) {
+            logger.warn("[DEBUG] Could not extract enclosing function text: " + t.getMessage());
+            return "";
+        }
+    }
+
     // Helper: detect breakpoint condition editor to avoid showing suggestions elsewhere
     private static boolean isBreakpointConditionEditor(@NotNull CompletionParameters parameters, @NotNull PsiFile fragment, @NotNull PsiElement contextElement) {
         // 1) Must be a code fragment
@@ -2,11 +2,8 @@ package org.samsung.aipp.aippintellij.debugAssist;
 
 import com.google.gson.Gson;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.colors.TextAttributesKey;
-import com.intellij.openapi.fileEditor.FileDocumentManager;
-import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.xdebugger.XDebugProcess;
 import com.intellij.xdebugger.XSourcePosition;
 import com.intellij.xdebugger.frame.*;
@@ -18,12 +15,16 @@ import org.dell.Constants;
 import javax.swing.*;
 import java.lang.reflect.Method;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * DebugDataCollector — single implementation that works across IntelliJ IDEA (Java)
@@ -41,9 +42,19 @@ public class DebugDataCollector {
 
     private static final DebugDataCollector instance = new DebugDataCollector();
 
+    private static final int MAX_EXCEPTION_TYPE_PROBES = 8;
+    private static final long BUNDLE_TIMEOUT_MS = 3000;
+    /** Kept between the inner collection deadline and a caller's deadline, so assembly still fits in. */
+    private static final long BUNDLE_ASSEMBLY_MARGIN_MS = 250;
+
     private final List<SnapshotItem> latestSnapshot = new ArrayList<>();
     private final List<StackItem> latestStack = new ArrayList<>();
+    private final StackDiffer stackDiffer = new StackDiffer();
+    private volatile StackDelta latestStackDelta = null;
+    private volatile ThreadDumpSummary latestThreadDump = null;
     private ExceptionDetail latestException = null;
+    /** Bumped whenever the snapshot, stack or exception returned by the getters may have changed. */
+    private final AtomicLong version = new AtomicLong();
 
     private DebugDataCollector() {
         logger.debug(isPyCharmEnvironment()
@@ -53,22 +64,58 @@ public class DebugDataCollector {
 
     public static DebugDataCollector getInstance() { return instance; }
 
-    public List<SnapshotItem> getSnapshot() { return new ArrayList<>(latestSnapshot); }
+    public List<SnapshotItem> getSnapshot() {
+        synchronized (latestSnapshot) { return new ArrayList<>(latestSnapshot); }
+    }
+
+    public List<StackItem> getCallStack() {
+        synchronized (latestStack) { return new ArrayList<>(latestStack); }
+    }
+
+    /** Difference between the latest collected stack and the one before it, or null before the first stack. */
+    public StackDelta getStackDelta() { return latestStackDelta; }
 
-    public List<StackItem> getCallStack() { return new ArrayList<>(latestStack); }
+    /** Grouped and recursion-folded stacks of all threads from the latest all-threads collection. */
+    public ThreadDumpSummary getThreadDump() { return latestThreadDump; }
 
     public ExceptionDetail getExceptionDetail() { return latestException; }
 
+    /** Cheap change marker for the latest snapshot, stack and exception, e.g. for request keys. */
+    public long getVersion() { return version.get(); }
+
     public void clearDebugData() {
-        latestSnapshot.clear();
-        latestStack.clear();
+        synchronized (latestSnapshot) { latestSnapshot.clear(); }
+        synchronized (latestStack) { latestStack.clear(); }
+        stackDiffer.reset();
+        latestStackDelta = null;
+        latestThreadDump = null;
         latestException = null;
+        version.incrementAndGet();
     }
 
     // ---------------- Stack Collection ----------------
 
     public static void collectStackItems(XDebugProcess debugProcess, Consumer<ContextItem> callback) {
-        List<StackItem> stackItems = new ArrayList<>();
+        collectStackItems(debugProcess, null, callback);
+    }
+
+    /**
+     * Collects the active stack page by page. {@code onPartial} receives the top frames as soon as
+     * they are resolved; further pages are requested only while the call stack payload budget has
+     * room. {@code callback} is invoked exactly once, after the last needed page or the cap.
+     */
+    public static PagedStackCollector collectStackItems(XDebugProcess debugProcess, @Nullable Consumer<ContextItem> onPartial,
+                                                        Consumer<ContextItem> callback) {
+        return collectStackItems(debugProcess, null, onPartial, callback);
+    }
+
+    /**
+     * With a {@code gate}, nothing is published once the gate is done, and the final result is
+     * published only if completing the gate with it succeeds, so a request that timed out or was
+     * cancelled leaves the latest stack untouched.
+     */
+    private static PagedStackCollector collectStackItems(XDebugProcess debugProcess, @Nullable CompletableFuture<ContextItem> gate,
+                                                         @Nullable Consumer<ContextItem> onPartial, Consumer<ContextItem> callback) {
         XExecutionStack stack = null;
         try {
             if (debugProcess.getSession() != null && debugProcess.getSession().getSuspendContext() != null) {
@@ -78,171 +125,199 @@ public class DebugDataCollector {
             logger.warn("Unable to obtain execution stack: " + t.getMessage());
         }
         if (stack == null) {
-            callback.accept(new ContextItem(stackItems, false, ContextItem.Type.STACK));
-            return;
+            ContextItem empty = new ContextItem(new ArrayList<StackItem>(), false, ContextItem.Type.STACK);
+            if (gate == null || gate.complete(empty)) callback.accept(empty);
+            return null;
         }
-        stack.computeStackFrames(0, new XExecutionStack.XStackFrameContainer() {
-            @Override
-            public void addStackFrames(@NotNull List<? extends XStackFrame> frames, boolean last) {
-                for (XStackFrame frame : frames) {
-                    if (stackItems.size() >= Constants.MAX_CALLSTACK_ITEMS) break;
-                    XSourcePosition pos = frame.getSourcePosition();
-                    if (pos != null) {
-                        String file = pos.getFile().getPath();
-                        int line = pos.getLine() + 1;
-                        String language = pos.getFile().getExtension();
-                        String functionText = extractEnclosingFunctionSafe(debugProcess, pos);
-                        stackItems.add(new StackItem(file, line, functionText != null ? functionText : "", language));
-                    }
-                }
-                trimToJsonSize(stackItems, Constants.MAX_CALLSTACK_JSON_SIZE_BYTES);
-                instance.latestStack.clear();
-                instance.latestStack.addAll(stackItems);
-                callback.accept(new ContextItem(stackItems, true, ContextItem.Type.STACK));
-            }
-            @Override public void errorOccurred(@NotNull String errorMessage) { callback.accept(new ContextItem(stackItems, false, ContextItem.Type.STACK)); }
-        });
+        PagedStackCollector collector = new PagedStackCollector(stack, debugProcess.getSession().getProject(),
+                Constants.MAX_CALLSTACK_ITEMS, PagedStackCollector.DEFAULT_FIRST_PAGE_SIZE,
+                page -> {
+                    if (gate != null && gate.isDone()) return;
+                    trimToJsonSize(page, Constants.MAX_CALLSTACK_JSON_SIZE_BYTES);
+                    publishStack(page);
+                    if (onPartial != null) onPartial.accept(new ContextItem(page, true, ContextItem.Type.STACK));
+                },
+                result -> {
+                    @SuppressWarnings("unchecked")
+                    List<StackItem> items = (List<StackItem>) result.getData();
+                    trimToJsonSize(items, Constants.MAX_CALLSTACK_JSON_SIZE_BYTES);
+                    if (gate != null && !gate.complete(result)) return;
+                    publishStack(items);
+                    callback.accept(result);
+                },
+                instance.stackDiffer,
+                delta -> { if (gate == null || !gate.isDone()) instance.latestStackDelta = delta; });
+        // Deeper pages only while the payload budget has room, measured with each page's function text resolved
+        collector.whileNeeded(items -> new Gson().toJson(items).length() < Constants.MAX_CALLSTACK_JSON_SIZE_BYTES)
+                .start(PagedStackCollector.DEFAULT_FIRST_PAGE_SIZE);
+        return collector;
     }
 
-    private static void trimToJsonSize(List<?> items, int maxBytes) {
-        Gson gson = new Gson();
-        while (!items.isEmpty() && gson.toJson(items).length() > maxBytes) items.remove(items.size() - 1);
-    }
-
-    @Nullable
-    private static String extractEnclosingFunctionSafe(XDebugProcess debugProcess, XSourcePosition pos) {
+    /**
+     * Collects the stacks of all threads in the current suspend context (locations only) under a
+     * global frame budget; {@code callback} receives a THREADS item holding a ThreadStacksResult.
+     * The grouped form used for payloads is published through {@link #getThreadDump()}.
+     */
+    public static void collectAllThreadStacks(XDebugProcess debugProcess, Consumer<ContextItem> callback) {
+        XSuspendContext suspendContext = null;
         try {
-            Project project = debugProcess.getSession().getProject();
-            VirtualFile file = pos.getFile();
-            int line = pos.getLine();
-            return extractEnclosingFunctionReflective(project, file, line);
+            if (debugProcess.getSession() != null) suspendContext = debugProcess.getSession().getSuspendContext();
         } catch (Throwable t) {
-            logger.debug("extractEnclosingFunctionSafe failed: " + t.getMessage());
-            return null;
+            logger.warn("Unable to obtain suspend context: " + t.getMessage());
+        }
+        if (suspendContext == null) {
+            callback.accept(new ContextItem(new ThreadStacksResult(), false, ContextItem.Type.THREADS));
+            return;
         }
+        new AllThreadsStackCollector(suspendContext, debugProcess.getSession().getProject(),
+                AllThreadsStackCollector.DEFAULT_FRAME_BUDGET, Constants.MAX_CALLSTACK_ITEMS,
+                AllThreadsStackCollector.DEFAULT_MAX_IN_FLIGHT, result -> {
+                    if (result.hasData()) {
+                        instance.latestThreadDump = ThreadDumpAggregator.aggregate(((ThreadStacksResult) result.getData()).getThreads());
+                    }
+                    callback.accept(result);
+                }).start();
     }
 
-    @Nullable
-    private static String extractEnclosingFunctionReflective(@NotNull Project project, @NotNull VirtualFile file, int line) {
+    /**
+     * Java only: builds a wait-for graph from JDI monitor info of all threads and reports deadlocks
+     * and contended monitors as a CONTENTION item holding a ContentionReport.
+     */
+    public static void collectLockContention(XDebugProcess debugProcess, Consumer<ContextItem> callback) {
+        // Checked by name so non-Java IDEs never load the JDI-based analyzer
+        if (isPyCharmEnvironment() || !debugProcess.getClass().getName().contains("JavaDebugProcess")) {
+            callback.accept(new ContextItem(null, false, ContextItem.Type.CONTENTION));
+            return;
+        }
         try {
-            Class<?> psiManagerClass = Class.forName("com.intellij.psi.PsiManager");
-            Class<?> psiFileClass = Class.forName("com.intellij.psi.PsiFile");
-            Class<?> psiElementClass = Class.forName("com.intellij.psi.PsiElement");
-
-            Document document = FileDocumentManager.getInstance().getDocument(file);
-            if (document == null || line >= document.getLineCount()) return null;
-
-            Object psiManager = psiManagerClass.getMethod("getInstance", Project.class).invoke(null, project);
-            Object psiFile = psiManagerClass.getMethod("findFile", VirtualFile.class).invoke(psiManager, file);
-            if (psiFile == null) return null;
-
-            int offset = document.getLineStartOffset(line);
-            Object elementAt = psiFileClass.getMethod("findElementAt", int.class).invoke(psiFile, offset);
-            if (elementAt == null) return null;
-
-            Class<?> psiTreeUtilClass = Class.forName("com.intellij.psi.util.PsiTreeUtil");
-            Class<?> psiMethodClass;
-            try { psiMethodClass = Class.forName("com.intellij.psi.PsiMethod"); } catch (Throwable ignored) { return null; }
-
-            Object functionElement = psiTreeUtilClass.getMethod("getParentOfType", psiElementClass, Class.class)
-                    .invoke(null, elementAt, psiMethodClass);
-            if (functionElement == null) return null;
-
-            String fullText = (String) functionElement.getClass().getMethod("getText").invoke(functionElement);
-            if (fullText == null) return null;
-
-            String[] lines = fullText.split("\n");
-            int prefix = Constants.ENCLOSING_FUNCTION_PREFIX_LINES, suffix = Constants.ENCLOSING_FUNCTION_SUFFIX_LINES;
-            if (lines.length <= prefix + suffix) return fullText;
-
-            Object textRange = functionElement.getClass().getMethod("getTextRange").invoke(functionElement);
-            int functionStartOffset = (int) textRange.getClass().getMethod("getStartOffset").invoke(textRange);
-            int functionStartLine = document.getLineNumber(functionStartOffset);
-            int targetLineInFunction = line - functionStartLine;
-            int startLine = Math.max(targetLineInFunction - prefix, 0), endLine = Math.min(targetLineInFunction + suffix, lines.length - 1);
-
-            StringBuilder clipped = new StringBuilder();
-            for (int i = startLine; i <= endLine; i++) clipped.append(lines[i]).append("\n");
-            return clipped.toString().trim();
-        } catch (ClassNotFoundException cnfe) {
-            logger.debug("PSI not available in runtime: " + cnfe.getMessage());
-            return null;
+            LockContentionAnalyzer.analyze(debugProcess, callback);
         } catch (Throwable t) {
-            logger.warn("extractEnclosingFunctionReflective error: " + t.getMessage());
-            return null;
+            logger.warn("collectLockContention failed: " + t.getMessage());
+            callback.accept(new ContextItem(null, false, ContextItem.Type.CONTENTION));
+        }
+    }
+
+    private static void publishStack(List<StackItem> items) {
+        synchronized (instance.latestStack) {
+            instance.latestStack.clear();
+            instance.latestStack.addAll(items);
         }
+        instance.version.incrementAndGet();
+    }
+
+    private static void trimToJsonSize(List<?> items, int maxBytes) {
+        Gson gson = new Gson();
+        while (!items.isEmpty() && gson.toJson(items).length() > maxBytes) items.remove(items.size() - 1);
     }
 
     // ---------------- Snapshot Collection ----------------
 
     public static void collectSnapshot(XStackFrame currentStackFrame, Consumer<ContextItem> callback) {
-        List<MutableSnapshotItem> snapshotItems = new ArrayList<>();
-        AtomicBoolean limitReached = new AtomicBoolean(false);
+        XValueRequests.children(currentStackFrame).thenAccept(children -> collectSnapshotItems(children, () -> false, result -> {
+            publishSnapshot(result);
+            callback.accept(new ContextItem(result, true, ContextItem.Type.SNAPSHOT));
+        }));
+    }
 
-        try {
-            currentStackFrame.computeChildren(new XCompositeNode() {
-                @Override
-                public void addChildren(@NotNull XValueChildrenList children, boolean last) {
-                    AtomicInteger pending = new AtomicInteger(children.size());
-                    if (children.size() == 0) complete();
-                    for (int i = 0; i < children.size(); i++) {
-                        if (limitReached.get() || new Gson().toJson(snapshotItems).length() > Constants.MAX_SNAPSHOT_JSON_SIZE_BYTES)
-                        { limitReached.set(true); complete(); return; }
+    /**
+     * Builds snapshot items for already enumerated frame children; {@code onDone} is called exactly
+     * once. Once {@code abandoned} reports true no further children are requested. Running the
+     * returned action completes early with the items collected so far.
+     */
+    private static Runnable collectSnapshotItems(Map<String, XValue> children, BooleanSupplier abandoned,
+                                                 Consumer<List<SnapshotItem>> onDone) {
+        List<MutableSnapshotItem> snapshotItems = new ArrayList<>();
+        AtomicBoolean finished = new AtomicBoolean(false);
+        Runnable complete = () -> {
+            if (!finished.compareAndSet(false, true)) return;
+            List<SnapshotItem> result = new ArrayList<>();
+            synchronized (snapshotItems) {
+                for (MutableSnapshotItem item : snapshotItems) result.add(item.toSnapshotItem());
+            }
+            onDone.accept(result);
+        };
+        if (children.isEmpty()) { complete.run(); return complete; }
+
+        AtomicInteger pending = new AtomicInteger(children.size());
+        for (Map.Entry<String, XValue> child : children.entrySet()) {
+            if (abandoned.getAsBoolean() || new Gson().toJson(snapshotItems).length() > Constants.MAX_SNAPSHOT_JSON_SIZE_BYTES) {
+                complete.run();
+                return complete;
+            }
 
-                        String varName = children.getName(i);
-                        XValue childValue = children.getValue(i);
-                        MutableSnapshotItem mutableItem = new MutableSnapshotItem(varName, "unknown", "unavailable", "Local");
-                        snapshotItems.add(mutableItem);
+            String varName = child.getKey();
+            XValue childValue = child.getValue();
+            MutableSnapshotItem mutableItem = new MutableSnapshotItem(varName, "unknown", "unavailable", "Local");
+            synchronized (snapshotItems) { snapshotItems.add(mutableItem); }
 
-                        childValue.computePresentation(new XValueNode() {
-                            @Override
-                            public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
-                                try {
-                                    if (presentation.getType() != null) mutableItem.type = presentation.getType();
-                                    mutableItem.value = renderPresentationText(presentation);
-                                    if ((mutableItem.value == null || mutableItem.value.isEmpty()) && isPyCharmEnvironment()) {
-                                        String pyRendered = tryReflectPyValueString(childValue);
-                                        if (pyRendered != null) mutableItem.value = pyRendered;
-                                    }
-                                } catch (Exception e) {
-                                    logger.warn("Error computing value for " + mutableItem.name + ": " + e.getMessage());
-                                    mutableItem.value = e.getMessage() != null && e.getMessage().contains("not yet calculated")
-                                            ? "Calculating..." : "Value not available";
-                                } finally {
-                                    if (hasChildren) {
-                                        collectChildren(childValue, mutableItem, 0, () -> { if (pending.decrementAndGet() == 0) complete(); });
-                                    } else {
-                                        if (pending.decrementAndGet() == 0) complete();
-                                    }
-                                }
+            try {
+                childValue.computePresentation(new XValueNode() {
+                    @Override
+                    public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
+                        try {
+                            if (presentation.getType() != null) mutableItem.type = presentation.getType();
+                            mutableItem.value = renderPresentationText(presentation);
+                            if ((mutableItem.value == null || mutableItem.value.isEmpty()) && isPyCharmEnvironment()) {
+                                String pyRendered = tryReflectPyValueString(childValue);
+                                if (pyRendered != null) mutableItem.value = pyRendered;
                             }
-                            @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
-                            @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String value, boolean hasChildren) {}
-                        }, XValuePlace.TREE);
+                        } catch (Exception e) {
+                            logger.warn("Error computing value for " + mutableItem.name + ": " + e.getMessage());
+                            mutableItem.value = e.getMessage() != null && e.getMessage().contains("not yet calculated")
+                                    ? "Calculating..." : "Value not available";
+                        } finally {
+                            if (hasChildren) {
+                                collectChildren(childValue, mutableItem, 0, () -> { if (pending.decrementAndGet() == 0) complete.run(); });
+                            } else {
+                                if (pending.decrementAndGet() == 0) complete.run();
+                            }
+                        }
                     }
-                }
-                @Override public void tooManyChildren(int remaining) {}
-                @Override public void setAlreadySorted(boolean alreadySorted) {}
-                @Override public void setErrorMessage(@NotNull String errorMessage) { complete(); }
-                @Override public void setErrorMessage(@NotNull String s, @Nullable XDebuggerTreeNodeHyperlink link) { complete(); }
-                @Override public void setMessage(@NotNull String s, @Nullable Icon icon, @NotNull com.intellij.ui.SimpleTextAttributes attrs, @Nullable XDebuggerTreeNodeHyperlink link) {}
+                    @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
+                    @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String value, boolean hasChildren) {}
+                }, XValuePlace.TREE);
+            } catch (Throwable t) {
+                logger.warn("collectSnapshot presentation error: " + t.getMessage());
+                if (pending.decrementAndGet() == 0) complete.run();
+            }
+        }
+        return complete;
+    }
 
-                private void complete() {
-                    List<SnapshotItem> result = new ArrayList<>();
-                    for (MutableSnapshotItem item : snapshotItems) result.add(item.toSnapshotItem());
-                    instance.latestSnapshot.clear();
-                    instance.latestSnapshot.addAll(result);
-                    callback.accept(new ContextItem(result, true, ContextItem.Type.SNAPSHOT));
-                }
-            });
-        } catch (Throwable t) {
-            logger.warn("collectSnapshot outer error: " + t.getMessage());
-            List<SnapshotItem> result = new ArrayList<>();
-            for (MutableSnapshotItem item : snapshotItems) result.add(item.toSnapshotItem());
+    private static void publishSnapshot(List<SnapshotItem> result) {
+        synchronized (instance.latestSnapshot) {
             instance.latestSnapshot.clear();
             instance.latestSnapshot.addAll(result);
-            callback.accept(new ContextItem(result, false, ContextItem.Type.SNAPSHOT));
         }
+        instance.version.incrementAndGet();
+    }
+
+    /**
+     * Shallow snapshots of the top frames of the active stack, collected in parallel under a shared
+     * node and byte budget that favours frames nearer the top; {@code callback} receives a FRAMES
+     * item holding a list of FrameSnapshot.
+     */
+    /** Returns the started collector, or null when there is no stack and the callback already ran. */
+    @Nullable
+    public static MultiFrameSnapshotCollector collectFrameSnapshots(XDebugProcess debugProcess, Consumer<ContextItem> callback) {
+        XExecutionStack stack = null;
+        try {
+            if (debugProcess.getSession() != null && debugProcess.getSession().getSuspendContext() != null) {
+                stack = debugProcess.getSession().getSuspendContext().getActiveExecutionStack();
+            }
+        } catch (Throwable t) {
+            logger.warn("Unable to obtain execution stack: " + t.getMessage());
+        }
+        if (stack == null) {
+            callback.accept(new ContextItem(new ArrayList<FrameSnapshot>(), false, ContextItem.Type.FRAMES));
+            return null;
+        }
+        MultiFrameSnapshotCollector collector = new MultiFrameSnapshotCollector(stack, MultiFrameSnapshotCollector.DEFAULT_TOP_FRAMES,
+                MultiFrameSnapshotCollector.DEFAULT_NODE_BUDGET, MultiFrameSnapshotCollector.DEFAULT_BYTE_BUDGET,
+                MultiFrameSnapshotCollector.DEFAULT_MAX_DEPTH, MultiFrameSnapshotCollector.DEFAULT_MAX_IN_FLIGHT,
+                callback);
+        collector.start();
+        return collector;
     }
 
     private static void collectChildren(XValue value, MutableSnapshotItem parent, int currentDepth, Runnable onComplete) {
@@ -300,273 +375,254 @@ public class DebugDataCollector {
     // ---------------- Exception Detection & Collection ----------------
 
     public static void collectException(XStackFrame frame, Consumer<ContextItem> callback) {
-        try {
-            frame.computeChildren(new XCompositeNode() {
-                @Override
-                public void addChildren(@NotNull XValueChildrenList children, boolean last) {
+        collectException(frame, null, callback);
+    }
+
+    /**
+     * Locates the exception without rendering every local: PyCharm's {@code __exception__} slot, or
+     * for Java the object carried by the JDI exception event of {@code suspendContext}. Only when
+     * neither is available does a bounded scan of the frame's children run.
+     */
+    public static void collectException(XStackFrame frame, @Nullable XSuspendContext suspendContext, Consumer<ContextItem> callback) {
+        locateException(frame, suspendContext, snapshotWhenMissing(frame, callback));
+    }
+
+    private static void locateException(XStackFrame frame, @Nullable XSuspendContext suspendContext, ExceptionSink sink) {
+        // Java fast path: read the thrown exception natively, falling back to the variable walk if that fails
+        if (isJavaContext(suspendContext) && JavaExceptionReader.readThrown(suspendContext, frame, detail -> {
+            if (detail != null) sink.found(detail);
+            else collectExceptionFromChildren(frame, suspendContext, null, sink);
+        })) return;
+        collectExceptionFromChildren(frame, suspendContext,
+                isJavaContext(suspendContext) ? JavaExceptionLocator.thrownException(suspendContext) : null, sink);
+    }
+
+    private static void collectExceptionFromChildren(XStackFrame frame, @Nullable XSuspendContext suspendContext,
+                                                     @Nullable Object thrown, ExceptionSink sink) {
+        // All pages first, so the scan fallback runs once over the whole frame rather than once per page
+        XValueRequests.children(frame).thenAccept(children -> {
+            try {
+                for (Map.Entry<String, XValue> child : children.entrySet()) {
                     // In PyCharm, __exception__ is the ground truth.
-                    for (int i = 0; i < children.size(); i++) {
-                        String name = children.getName(i);
-                        XValue value = children.getValue(i);
-                        if (isPyCharmEnvironment() && "__exception__".equals(name)) {
-                            processPyCharmExceptionTuple(value, frame, callback);
-                            return;
-                        }
+                    if (isPyCharmEnvironment() && "__exception__".equals(child.getKey())) {
+                        processPyCharmExceptionTuple(child.getValue(), frame, sink);
+                        return;
                     }
-                    // Otherwise, use generic heuristics (covers Java and others)
-                    for (int i = 0; i < children.size(); i++) {
-                        String name = children.getName(i);
-                        XValue value = children.getValue(i);
-                        if (isExceptionCandidateSafe(name, value)) {
-                            processExceptionSafe(value, frame, callback);
-                            return;
-                        }
+                    if (thrown != null && JavaExceptionLocator.holds(child.getValue(), thrown)) {
+                        processExceptionSafe(child.getValue(), frame, sink);
+                        return;
                     }
-                    // fallback: nothing looked like exception -> collect snapshot
-                    collectSnapshot(frame, callback);
                 }
-            });
-        } catch (Throwable t) {
-            logger.warn("collectException outer error: " + t.getMessage());
-            try { collectSnapshot(frame, callback); } catch (Throwable ignored) {}
-        }
+                scanForException(new ArrayList<>(children.values()), new ArrayList<>(children.keySet()), frame, suspendContext, sink);
+            } catch (Throwable t) {
+                logger.warn("collectException outer error: " + t.getMessage());
+                sink.missing();
+            }
+        });
     }
 
-    // PyCharm: __exception__ is a tuple (type, exception object, traceback object)
-    private static void processPyCharmExceptionTuple(XValue exceptionTuple, XStackFrame frame, Consumer<ContextItem> callback) {
-        try {
-            exceptionTuple.computeChildren(new XCompositeNode() {
-                @Override
-                public void addChildren(@NotNull XValueChildrenList tupleChildren, boolean last) {
-                    Map<Integer, XValue> parts = new ConcurrentHashMap<>();
-                    for (int i = 0; i < tupleChildren.size(); i++) parts.put(i, tupleChildren.getValue(i));
-
-                    // Evaluate type and message concurrently via presentation; traceback is walked explicitly.
-                    CountDownLatch latch = new CountDownLatch(2);
-                    final String[] type = {"unknown"};
-                    final String[] message = {""};
-
-                    // [0] type
-                    XValue typeVal = parts.get(0);
-                    if (typeVal != null) {
-                        try {
-                            typeVal.computePresentation(new XValueNode() {
-                                @Override public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
-                                    String t = presentation.getType();
-                                    if (t == null || t.isEmpty()) t = renderPresentationText(presentation);
-                                    type[0] = (t == null || t.isEmpty()) ? "unknown" : t;
-                                    latch.countDown();
-                                }
-                                @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
-                                @Override public void setPresentation(@Nullable Icon icon, @NotNull String t, @NotNull String v, boolean hasChildren) { type[0] = t; latch.countDown(); }
-                            }, XValuePlace.TREE);
-                        } catch (Throwable ignored) { latch.countDown(); }
-                    } else latch.countDown();
-
-                    // [1] exception object -> message via args
-                    XValue exObj = parts.get(1);
-                    if (exObj != null) {
-                        try {
-                            exObj.computeChildren(new XCompositeNode() {
-                                @Override public void addChildren(@NotNull XValueChildrenList children, boolean last) {
-                                    // find 'args'
-                                    AtomicInteger pending = new AtomicInteger(children.size());
-                                    if (children.size() == 0) { latch.countDown(); return; }
-                                    for (int i = 0; i < children.size(); i++) {
-                                        String nm = children.getName(i);
-                                        XValue val = children.getValue(i);
-                                        if ("args".equals(nm)) {
-                                            val.computePresentation(new XValueNode() {
-                                                @Override public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation p, boolean hasChildren) {
-                                                    String rendered = renderPresentationText(p);
-                                                    if (rendered != null) message[0] = rendered;
-                                                    latch.countDown();
-                                                }
-                                                @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator f) {}
-                                                @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String value, boolean hasChildren) { message[0] = value; latch.countDown(); }
-                                            }, XValuePlace.TREE);
-                                            // break: we only need args
-                                        }
-                                        if (pending.decrementAndGet() == 0) { /* if no args found */ if (latch.getCount() > 0) latch.countDown(); }
-                                    }
-                                }
-                            });
-                        } catch (Throwable ignored) { latch.countDown(); }
-                    } else latch.countDown();
-
-                    // Walk traceback chain
-                    final String[] stackTrace = {""};
-                    XValue tb = parts.get(2);
-                    if (tb != null) stackTrace[0] = walkTraceback(tb, new StringBuilder());
-
-                    // Finish after type & message are ready (traceback already computed synchronously via callbacks)
-                    try { latch.await(1500, TimeUnit.MILLISECONDS); } catch (InterruptedException ignored) {}
-
-                    ExceptionDetail detail = new ExceptionDetail(
-                            message[0],
-                            type[0],
-                            stackTrace[0],
-                            frame.getSourcePosition() != null ? frame.getSourcePosition().getFile().getPath() : "unknown",
-                            frame.getSourcePosition() != null ? frame.getSourcePosition().getLine() : -1
-                    );
-                    instance.latestException = detail;
-                    callback.accept(new ContextItem(detail, true, ContextItem.Type.EXCEPTION));
-                }
-            });
-        } catch (Throwable t) {
-            logger.warn("processPyCharmExceptionTuple failed: " + t.getMessage());
-            collectSnapshot(frame, callback);
+    /**
+     * Fallback when no exception event or slot is available: first by name (no debugger calls),
+     * then by presentation type for at most MAX_EXCEPTION_TYPE_PROBES children, probed concurrently.
+     */
+    private static void scanForException(List<XValue> values, List<String> names, XStackFrame frame,
+                                         @Nullable XSuspendContext suspendContext, ExceptionSink sink) {
+        for (int i = 0; i < names.size(); i++) {
+            if (nameSuggestsException(names.get(i))) {
+                processCandidate(values.get(i), frame, suspendContext, sink);
+                return;
+            }
+        }
+        int probes = Math.min(values.size(), MAX_EXCEPTION_TYPE_PROBES);
+        if (probes == 0) { sink.missing(); return; }
+        boolean[] matches = new boolean[probes];
+        AtomicInteger pending = new AtomicInteger(probes);
+        Runnable decide = () -> {
+            for (int i = 0; i < probes; i++) {
+                if (matches[i]) { processCandidate(values.get(i), frame, suspendContext, sink); return; }
+            }
+            sink.missing();
+        };
+        for (int i = 0; i < probes; i++) {
+            int index = i;
+            AtomicBoolean reported = new AtomicBoolean(false);
+            Consumer<String> onType = type -> {
+                if (!reported.compareAndSet(false, true)) return;
+                matches[index] = typeSuggestsException(type);
+                if (pending.decrementAndGet() == 0) decide.run();
+            };
+            try {
+                values.get(i).computePresentation(new XValueNode() {
+                    @Override public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) { onType.accept(presentation.getType()); }
+                    @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
+                    @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String value, boolean hasChildren) { onType.accept(type); }
+                }, XValuePlace.TREE);
+            } catch (Throwable t) {
+                onType.accept(null);
+            }
         }
     }
 
-    private static String walkTraceback(XValue tbValue, StringBuilder sb) {
-        try {
-            tbValue.computeChildren(new XCompositeNode() {
-                @Override
-                public void addChildren(@NotNull XValueChildrenList children, boolean last) {
-                    XValue frameVal = null;
-                    XValue nextVal = null;
-                    for (int i = 0; i < children.size(); i++) {
-                        String nm = children.getName(i);
-                        if ("tb_frame".equals(nm)) frameVal = children.getValue(i);
-                        else if ("tb_next".equals(nm)) nextVal = children.getValue(i);
-                    }
-                    if (frameVal != null) sb.append(extractFrameInfo(frameVal)).append("\n");
-                    if (nextVal != null) sb.append(walkTraceback(nextVal, new StringBuilder()));
-                }
-            });
-        } catch (Throwable t) {
-            logger.debug("walkTraceback failed: " + t.getMessage());
-        }
-        return sb.toString();
+    /** Java variables are read natively; anything else goes through the presentation-based walk. */
+    private static void processCandidate(XValue value, XStackFrame frame, @Nullable XSuspendContext suspendContext,
+                                         ExceptionSink sink) {
+        if (isJavaContext(suspendContext) && JavaExceptionReader.readValue(suspendContext, value, frame, detail -> {
+            if (detail != null) sink.found(detail);
+            else processExceptionSafe(value, frame, sink);
+        })) return;
+        processExceptionSafe(value, frame, sink);
     }
 
-    private static String extractFrameInfo(XValue frameVal) {
-        final StringBuilder info = new StringBuilder();
-        try {
-            frameVal.computeChildren(new XCompositeNode() {
-                @Override
-                public void addChildren(@NotNull XValueChildrenList frameChildren, boolean last) {
-                    String file = null, line = null, codeObj = null;
-                    for (int i = 0; i < frameChildren.size(); i++) {
-                        String name = frameChildren.getName(i);
-                        XValue v = frameChildren.getValue(i);
-                        if ("f_lineno".equals(name)) line = safePresentation(v);
-                        else if ("f_code".equals(name)) codeObj = safePresentation(v);
-                        else if ("f_globals".equals(name) && file == null) file = safePresentation(v); // best effort
-                    }
-                    info.append(codeObj != null ? codeObj : "<code>")
-                        .append(" : ")
-                        .append(line != null ? line : "?");
-                }
-            });
-        } catch (Throwable t) {
-            logger.debug("extractFrameInfo failed: " + t.getMessage());
-        }
-        return info.toString();
+    /**
+     * Fingerprint of the exception that suspended a Java VM, read from the JDI event without
+     * collecting anything; null for other pauses and for non-Java debuggers.
+     */
+    @Nullable
+    public static String exceptionFingerprint(@Nullable XSuspendContext suspendContext) {
+        return isJavaContext(suspendContext) ? JavaExceptionLocator.fingerprint(suspendContext, ExceptionFingerprint.DEFAULT_TOP_FRAMES) : null;
     }
 
-    // Generic (Java or others) exception path
-    private static boolean isExceptionCandidateSafe(String name, XValue value) {
-        try {
-            boolean nameSuggests = (name != null && name.toLowerCase().contains("exception"));
-            String type = getExceptionType(value);
-            boolean typeSuggests = type != null && type.toLowerCase().contains("exception");
-            boolean descriptorSuggests = false;
-            try {
-                Method getDescriptorMethod;
-                Class<?> nodeProviderClass = Class.forName("com.intellij.debugger.ui.impl.watch.NodeDescriptorProvider");
-                if (nodeProviderClass.isInstance(value)) {
-                    getDescriptorMethod = nodeProviderClass.getMethod("getDescriptor");
-                    Object desc = getDescriptorMethod.invoke(value);
-                    descriptorSuggests = isPyDebugValue(desc);
-                }
-            } catch (Throwable ignored) {}
-            return nameSuggests || typeSuggests || descriptorSuggests;
-        } catch (Throwable t) {
-            logger.debug("isExceptionCandidateSafe error: " + t.getMessage());
-            return false;
-        }
+    /**
+     * The one fingerprint of a collected exception: the JDI event fingerprint when the VM reports
+     * one (the same value {@link #exceptionFingerprint} gives at pause time), else one computed
+     * from the collected detail.
+     */
+    public static String fingerprintOf(@Nullable XSuspendContext suspendContext, @NotNull ExceptionDetail detail) {
+        String fingerprint = exceptionFingerprint(suspendContext);
+        return fingerprint != null ? fingerprint : ExceptionFingerprint.of(detail, ExceptionFingerprint.DEFAULT_TOP_FRAMES);
     }
 
-    private static void processExceptionSafe(XValue value, XStackFrame frame, Consumer<ContextItem> callback) {
-        try {
-            final ExceptionState state = new ExceptionState(value, getExceptionType(value), frame);
-            value.computeChildren(new XCompositeNode() {
-                @Override
-                public void addChildren(@NotNull XValueChildrenList exChildren, boolean last) {
-                    AtomicInteger pending = new AtomicInteger(exChildren.size());
-                    for (int j = 0; j < exChildren.size(); j++) {
-                        String fieldName = exChildren.getName(j);
-                        XValue fieldValue = exChildren.getValue(j);
-                        if ("detailMessage".equals(fieldName) || "message".equalsIgnoreCase(fieldName) || "args".equals(fieldName)) {
-                            processDetailMessage(fieldValue, state, callback, pending);
-                        } else if ("stackTrace".equals(fieldName) || fieldName.toLowerCase().contains("traceback") || "__traceback__".equals(fieldName)) {
-                            processStackTrace(fieldValue, state, callback, pending);
-                        } else if (pending.decrementAndGet() == 0) {
-                            if (state.isComplete()) completeExceptionState(state, callback); else collectSnapshot(frame, callback);
-                        }
-                    }
-                }
-            });
-        } catch (Throwable t) {
-            logger.warn("processExceptionSafe error: " + t.getMessage());
-            collectSnapshot(frame, callback);
-        }
+    /** Where an exception lookup reports: exactly one of {@code found} and {@code missing} is called, once. */
+    private interface ExceptionSink {
+        void found(ExceptionDetail detail);
+        void missing();
     }
 
-    private static void processDetailMessage(XValue fieldValue, ExceptionState state, Consumer<ContextItem> callback, AtomicInteger pending) {
-        try {
-            fieldValue.computePresentation(new XValueNode() {
-                @Override
-                public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
-                    String message = renderPresentationText(presentation);
-                    if (!"Collecting data...".equals(message)) state.setDetailMessage(message);
-                    if (pending.decrementAndGet() == 0) completeExceptionState(state, callback);
-                }
-                @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
-                @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String value, boolean hasChildren) {
-                    state.setDetailMessage(value);
-                    if (pending.decrementAndGet() == 0) completeExceptionState(state, callback);
-                }
-            }, XValuePlace.TREE);
-        } catch (Throwable t) { logger.debug("processDetailMessage failed: " + t.getMessage()); if (pending.decrementAndGet() == 0) completeExceptionState(state, callback); }
+    /** Publishes a found exception to {@code callback}; when there is none, collects a snapshot for it instead. */
+    private static ExceptionSink snapshotWhenMissing(XStackFrame frame, Consumer<ContextItem> callback) {
+        return new ExceptionSink() {
+            @Override public void found(ExceptionDetail detail) { publishException(detail, callback); }
+            @Override public void missing() { collectSnapshot(frame, callback); }
+        };
     }
 
-    private static void processStackTrace(XValue fieldValue, ExceptionState state, Consumer<ContextItem> callback, AtomicInteger pending) {
-        try {
-            fieldValue.computePresentation(new XValueNode() {
-                @Override
-                public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
-                    state.setStackTrace(renderPresentationText(presentation));
-                    if (pending.decrementAndGet() == 0) completeExceptionState(state, callback);
-                }
-                @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
-                @Override public void setPresentation(@Nullable Icon icon, @NotNull String type, @NotNull String value, boolean hasChildren) {
-                    state.setStackTrace(value);
-                    if (pending.decrementAndGet() == 0) completeExceptionState(state, callback);
-                }
-            }, XValuePlace.TREE);
-        } catch (Throwable t) { logger.debug("processStackTrace failed: " + t.getMessage()); if (pending.decrementAndGet() == 0) completeExceptionState(state, callback); }
+    private static void publishException(ExceptionDetail detail, Consumer<ContextItem> callback) {
+        setLatestException(detail);
+        callback.accept(new ContextItem(detail, true, ContextItem.Type.EXCEPTION));
     }
 
-    private static String getExceptionType(XValue value) {
-        final String[] type = {"unknown"};
-        try {
-            value.computePresentation(new XValueNode() {
-                @Override
-                public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
-                    String typeStr = presentation.getType();
-                    if (typeStr != null && !typeStr.isEmpty()) type[0] = typeStr;
+    private static void setLatestException(ExceptionDetail detail) {
+        instance.latestException = detail;
+        instance.version.incrementAndGet();
+    }
+
+    /** Variable names: only an explicit "exception", so e.g. {@code String error} is not a candidate. */
+    private static boolean nameSuggestsException(@Nullable String name) {
+        return name != null && name.toLowerCase().contains("exception");
+    }
+
+    /**
+     * Presentation types: Exception and Throwable types, plus class names following the Throwable
+     * naming convention of a capitalised "Error" suffix (AssertionError, ValueError).
+     */
+    private static boolean typeSuggestsException(@Nullable String type) {
+        if (type == null) return false;
+        String lower = type.toLowerCase();
+        if (lower.contains("exception") || lower.contains("throwable")) return true;
+        String simpleName = type.substring(type.lastIndexOf('.') + 1);
+        return simpleName.endsWith("Error") && simpleName.length() > "Error".length();
+    }
+
+    private static boolean isJavaContext(@Nullable XSuspendContext suspendContext) {
+        return suspendContext != null && !isPyCharmEnvironment()
+                && suspendContext.getClass().getName().startsWith("com.intellij.debugger.engine.");
+    }
+
+    // PyCharm: __exception__ is a tuple (type, exception object, traceback object)
+    private static void processPyCharmExceptionTuple(XValue exceptionTuple, XStackFrame frame, ExceptionSink sink) {
+        XValueRequests.children(exceptionTuple).thenAccept(tuple -> {
+            List<XValue> parts = new ArrayList<>(tuple.values());
+            XValue typeVal = parts.size() > 0 ? parts.get(0) : null;
+            XValue exObj = parts.size() > 1 ? parts.get(1) : null;
+            XValue traceback = parts.size() > 2 ? parts.get(2) : null;
+
+            // Type, message (exception.args) and traceback are fetched concurrently
+            CompletableFuture<String> type = XValueRequests.presentation(typeVal).thenApply(DebugDataCollector::pythonTypeName)
+                    .completeOnTimeout("unknown", PythonTracebackWalker.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            CompletableFuture<String> message = exObj == null ? CompletableFuture.completedFuture("")
+                    : XValueRequests.children(exObj).thenCompose(fields -> XValueRequests.text(fields.get("args")))
+                    .thenApply(text -> text != null ? text : "")
+                    .completeOnTimeout("", PythonTracebackWalker.DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            CompletableFuture<List<ExceptionFrame>> frames = PythonTracebackWalker.walk(traceback,
+                    PythonTracebackWalker.DEFAULT_MAX_DEPTH, PythonTracebackWalker.DEFAULT_TIMEOUT_MS);
+
+            CompletableFuture.allOf(type, message, frames).thenAccept(ignored -> {
+                List<ExceptionFrame> trace = frames.join();
+                StringBuilder stackTrace = new StringBuilder();
+                for (ExceptionFrame f : trace) stackTrace.append(f).append('\n');
+                ExceptionDetail detail = new ExceptionDetail(
+                        message.join(),
+                        type.join(),
+                        stackTrace.toString().trim(),
+                        frame.getSourcePosition() != null ? frame.getSourcePosition().getFile().getPath() : "unknown",
+                        frame.getSourcePosition() != null ? frame.getSourcePosition().getLine() : -1
+                );
+                detail.setFrames(trace);
+                if (exObj == null) { sink.found(detail); return; }
+                // Attach __cause__/__context__ links; the walker completes on its own timeout
+                PythonExceptionChainWalker.walk(exObj, ExceptionChain.DEFAULT_MAX_DEPTH, ExceptionChain.DEFAULT_MAX_BYTES,
+                        PythonExceptionChainWalker.DEFAULT_TIMEOUT_MS).thenAccept(chain -> {
+                    if (!chain.getLinks().isEmpty()) detail.setChain(chain);
+                    sink.found(detail);
+                });
+            });
+        }).exceptionally(t -> {
+            logger.warn("processPyCharmExceptionTuple failed: " + t.getMessage());
+            sink.missing();
+            return null;
+        });
+    }
+
+    /** "<class 'ValueError'>" -> "ValueError"; falls back to the presentation type. */
+    private static String pythonTypeName(@Nullable XValueRequests.Presentation presentation) {
+        if (presentation == null) return "unknown";
+        String text = presentation.text;
+        if (text != null && text.startsWith("<class '") && text.endsWith("'>")) return text.substring(8, text.length() - 2);
+        if (text != null && !text.isEmpty()) return text;
+        return presentation.type != null && !presentation.type.isEmpty() ? presentation.type : "unknown";
+    }
+
+    // Generic (Java or others) exception path
+    private static void processExceptionSafe(XValue value, XStackFrame frame, ExceptionSink sink) {
+        ExceptionState state = new ExceptionState(value, frame, sink::found)
+                .start(ExceptionState.DEFAULT_DEADLINE_MS);
+        state.expect(ExceptionState.Field.TYPE);
+        XValueRequests.presentation(value).thenAccept(p -> state.offer(ExceptionState.Field.TYPE, p != null ? p.type : null));
+
+        XValueRequests.children(value).thenAccept(fields -> {
+            for (Map.Entry<String, XValue> field : fields.entrySet()) {
+                String fieldName = field.getKey();
+                if ("detailMessage".equals(fieldName) || "message".equalsIgnoreCase(fieldName) || "args".equals(fieldName)) {
+                    if (state.isExpected(ExceptionState.Field.MESSAGE)) continue;
+                    state.expect(ExceptionState.Field.MESSAGE);
+                    XValueRequests.text(field.getValue()).thenAccept(text -> state.offer(ExceptionState.Field.MESSAGE, text));
+                } else if ("stackTrace".equals(fieldName) || fieldName.toLowerCase().contains("traceback")) {
+                    if (state.isExpected(ExceptionState.Field.STACK_TRACE)) continue;
+                    state.expect(ExceptionState.Field.STACK_TRACE);
+                    XValueRequests.text(field.getValue()).thenAccept(text -> state.offer(ExceptionState.Field.STACK_TRACE, text));
                 }
-                @Override public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {}
-                @Override public void setPresentation(@Nullable Icon icon, @NotNull String t, @NotNull String v, boolean hasChildren) { type[0] = t; }
-            }, XValuePlace.TREE);
-        } catch (Throwable t) { logger.debug("getExceptionType failed: " + t.getMessage()); }
-        return type[0];
+            }
+            // Neither a message nor a trace: not an exception after all
+            if (!state.isExpected(ExceptionState.Field.MESSAGE) && !state.isExpected(ExceptionState.Field.STACK_TRACE)) {
+                // Lost to the deadline: a partial detail was already reported
+                if (state.cancel()) sink.missing();
+                return;
+            }
+            state.seal();
+        });
     }
 
-    private static String renderPresentationText(XValuePresentation presentation) {
+    static String renderPresentationText(XValuePresentation presentation) {
         StringBuilder sb = new StringBuilder();
         try {
             presentation.renderValue(new XValuePresentation.XValueTextRenderer() {
@@ -584,34 +640,201 @@ public class DebugDataCollector {
         return sb.toString();
     }
 
-    private static void completeExceptionState(ExceptionState state, Consumer<ContextItem> callback) {
-        try {
-            ExceptionDetail detail = state.buildExceptionDetail();
-            instance.latestException = detail;
-            callback.accept(new ContextItem(detail, true, ContextItem.Type.EXCEPTION));
-        } catch (Throwable t) { logger.warn("completeExceptionState failed: " + t.getMessage()); }
+    // ---------------- Combined Exception + Snapshot ----------------
+
+    /**
+     * Exception and locals in one pass: the frame's children are enumerated once, the exception
+     * candidate goes to the exception pipeline and the locals to the snapshot pipeline, running
+     * concurrently. {@code callback} receives one BUNDLE item holding a DebugContextBundle; its
+     * exception is null when the pause was not caused by one.
+     */
+    public static void collectExceptionAndSnapshot(XStackFrame frame, @Nullable XSuspendContext suspendContext,
+                                                   Consumer<ContextItem> callback) {
+        collectBundle(frame, suspendContext, BUNDLE_TIMEOUT_MS, () -> false, bundle -> {
+            publishBundle(bundle);
+            callback.accept(new ContextItem(bundle, true, ContextItem.Type.BUNDLE));
+        });
+    }
+
+    /**
+     * The bundle collection itself; publishes nothing, so a caller that gave up can drop the result.
+     * At {@code timeoutMs} it completes with what it has: the snapshot items collected so far and
+     * no exception if none was found yet.
+     */
+    private static void collectBundle(XStackFrame frame, @Nullable XSuspendContext suspendContext, long timeoutMs,
+                                      BooleanSupplier abandoned, Consumer<DebugContextBundle> onDone) {
+        CompletableFuture<ExceptionDetail> exception = new CompletableFuture<>();
+        ExceptionSink exceptionSink = new ExceptionSink() {
+            @Override public void found(ExceptionDetail detail) { exception.complete(detail); }
+            @Override public void missing() { exception.complete(null); }
+        };
+        CompletableFuture<List<SnapshotItem>> snapshot = new CompletableFuture<>();
+        AtomicReference<Runnable> flushSnapshot = new AtomicReference<>();
+
+        boolean java = isJavaContext(suspendContext);
+        boolean nativeRead = java && JavaExceptionReader.readThrown(suspendContext, frame, detail -> {
+            if (detail != null) exceptionSink.found(detail);
+            else exceptionSink.missing();
+        });
+        Object thrown = java && !nativeRead ? JavaExceptionLocator.thrownException(suspendContext) : null;
+
+        XValueRequests.children(frame).thenAccept(children -> {
+            Map<String, XValue> locals = new LinkedHashMap<>(children);
+            XValue pyException = isPyCharmEnvironment() ? locals.remove("__exception__") : null;
+            if (pyException != null) {
+                processPyCharmExceptionTuple(pyException, frame, exceptionSink);
+            } else if (!nativeRead) {
+                XValue candidate = null;
+                for (Map.Entry<String, XValue> child : children.entrySet()) {
+                    if (thrown != null ? JavaExceptionLocator.holds(child.getValue(), thrown) : nameSuggestsException(child.getKey())) {
+                        candidate = child.getValue();
+                        break;
+                    }
+                }
+                if (candidate != null) processCandidate(candidate, frame, suspendContext, exceptionSink);
+                else exceptionSink.missing();
+            }
+            flushSnapshot.set(collectSnapshotItems(locals, abandoned, snapshot::complete));
+        });
+
+        ScheduledFuture<?> deadline = AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            Runnable flush = flushSnapshot.get();
+            if (flush != null) flush.run();
+            snapshot.complete(new ArrayList<>());
+            exception.complete(null);
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        CompletableFuture.allOf(exception, snapshot).thenRun(() -> {
+            deadline.cancel(false);
+            ExceptionDetail detail = exception.join();
+            String fingerprint = detail != null ? fingerprintOf(suspendContext, detail) : null;
+            onDone.accept(new DebugContextBundle(detail, snapshot.join(), fingerprint));
+        });
+    }
+
+    private static void publishBundle(DebugContextBundle bundle) {
+        publishSnapshot(bundle.getSnapshot());
+        if (bundle.getException() != null) setLatestException(bundle.getException());
+    }
+
+    // ---------------- Future API ----------------
+
+    /*
+     * Future-based entry points for callers that need the result rather than the latest published
+     * state. Each future completes exactly once and never exceptionally: with the collected item,
+     * or with a no-data item when the deadline passes first. A future that was cancelled or timed
+     * out publishes nothing to the latest-state getters, and snapshot work stops requesting further
+     * values; debugger requests already sent are not interrupted. A stack future additionally
+     * stops the debugger from computing further frames.
+     */
+
+    public static CompletableFuture<ContextItem> snapshotAsync(XStackFrame frame, long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        XValueRequests.children(frame).thenAccept(children -> {
+            if (result.isDone()) return;
+            collectSnapshotItems(children, result::isDone, items -> {
+                if (result.complete(new ContextItem(items, true, ContextItem.Type.SNAPSHOT))) publishSnapshot(items);
+            });
+        });
+        return withDeadline(result, timeoutMs, () -> new ContextItem(new ArrayList<SnapshotItem>(), false, ContextItem.Type.SNAPSHOT));
+    }
+
+    /** On timeout, completes with this request's own first page if it was already resolved. */
+    public static CompletableFuture<ContextItem> stackAsync(XDebugProcess debugProcess, long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        PagedStackCollector collector = collectStackItems(debugProcess, result, null, item -> {});
+        if (collector != null) result.whenComplete((item, error) -> collector.finish());
+        return withDeadline(result, timeoutMs, () -> {
+            List<StackItem> firstPage = collector != null ? collector.getFirstPage() : new ArrayList<>();
+            return new ContextItem(firstPage, !firstPage.isEmpty(), ContextItem.Type.STACK);
+        });
+    }
+
+    /** EXCEPTION item only: unlike {@link #collectException}, no snapshot is collected when there is none. */
+    public static CompletableFuture<ContextItem> exceptionAsync(XStackFrame frame, @Nullable XSuspendContext suspendContext, long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        locateException(frame, suspendContext, new ExceptionSink() {
+            @Override public void found(ExceptionDetail detail) {
+                if (result.complete(new ContextItem(detail, true, ContextItem.Type.EXCEPTION))) setLatestException(detail);
+            }
+            @Override public void missing() { result.complete(new ContextItem(null, false, ContextItem.Type.EXCEPTION)); }
+        });
+        return withDeadline(result, timeoutMs, () -> new ContextItem(null, false, ContextItem.Type.EXCEPTION));
+    }
+
+    public static CompletableFuture<ContextItem> exceptionAndSnapshotAsync(XStackFrame frame, @Nullable XSuspendContext suspendContext,
+                                                                          long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        // The inner deadline fires first, so a slow bundle still arrives with its partial results
+        collectBundle(frame, suspendContext, Math.max(0, timeoutMs - BUNDLE_ASSEMBLY_MARGIN_MS), result::isDone, bundle -> {
+            if (result.complete(new ContextItem(bundle, true, ContextItem.Type.BUNDLE))) publishBundle(bundle);
+        });
+        return withDeadline(result, timeoutMs,
+                () -> new ContextItem(new DebugContextBundle(null, new ArrayList<>(), null), false, ContextItem.Type.BUNDLE));
+    }
+
+    /** THREADS item; on timeout, a no-data item. */
+    public static CompletableFuture<ContextItem> threadsAsync(XDebugProcess debugProcess, long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        collectAllThreadStacks(debugProcess, result::complete);
+        return result.completeOnTimeout(new ContextItem(new ThreadStacksResult(), false, ContextItem.Type.THREADS),
+                timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** FRAMES item; on timeout, the frames whose snapshot had finished. */
+    public static CompletableFuture<ContextItem> framesAsync(XDebugProcess debugProcess, long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        MultiFrameSnapshotCollector collector = collectFrameSnapshots(debugProcess, result::complete);
+        if (collector == null) return result;
+        // The inner deadline fires first and completes with the finished frames; the outer one only backs it up
+        ScheduledFuture<?> deadline = AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(collector::finish, Math.max(0, timeoutMs - BUNDLE_ASSEMBLY_MARGIN_MS), TimeUnit.MILLISECONDS);
+        result.whenComplete((item, error) -> deadline.cancel(false));
+        return result.completeOnTimeout(new ContextItem(new ArrayList<FrameSnapshot>(), false, ContextItem.Type.FRAMES),
+                timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** CONTENTION item; on timeout, a no-data item. */
+    public static CompletableFuture<ContextItem> contentionAsync(XDebugProcess debugProcess, long timeoutMs) {
+        CompletableFuture<ContextItem> result = new CompletableFuture<>();
+        collectLockContention(debugProcess, result::complete);
+        return result.completeOnTimeout(new ContextItem(null, false, ContextItem.Type.CONTENTION),
+                timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static CompletableFuture<ContextItem> withDeadline(CompletableFuture<ContextItem> result, long timeoutMs,
+                                                               Supplier<ContextItem> onTimeout) {
+        if (result.isDone()) return result;
+        ScheduledFuture<?> deadline = AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(() -> { result.complete(onTimeout.get()); }, timeoutMs, TimeUnit.MILLISECONDS);
+        result.whenComplete((item, error) -> deadline.cancel(false));
+        return result;
     }
 
     // ---------------- PyCharm Reflective Helpers ----------------
 
-    private static boolean isPyCharmEnvironment() {
-        try { Class.forName("com.jetbrains.python.debugger.PyDebugValue"); return true; }
-        catch (Throwable t) { return false; }
+    /** Reflective lookups resolved once; a class absent from this IDE stays null. */
+    private static final class Classes {
+        static final Class<?> PY_DEBUG_VALUE = load("com.jetbrains.python.debugger.PyDebugValue");
+        static final Class<?> NODE_DESCRIPTOR_PROVIDER = load("com.intellij.debugger.ui.impl.watch.NodeDescriptorProvider");
+
+        private static Class<?> load(String name) {
+            try { return Class.forName(name); } catch (Throwable t) { return null; }
+        }
     }
 
+    static boolean isPyCharmEnvironment() { return Classes.PY_DEBUG_VALUE != null; }
+
     private static boolean isPyDebugValue(Object o) {
-        if (o == null) return false;
-        try { Class<?> cls = Class.forName("com.jetbrains.python.debugger.PyDebugValue"); return cls.isInstance(o); }
-        catch (Throwable t) { return false; }
+        return o != null && Classes.PY_DEBUG_VALUE != null && Classes.PY_DEBUG_VALUE.isInstance(o);
     }
 
     @Nullable
-    private static String tryReflectPyValueString(XValue xValue) {
+    static String tryReflectPyValueString(XValue xValue) {
         try {
             Object desc = null;
             try {
-                Class<?> nodeProviderClass = Class.forName("com.intellij.debugger.ui.impl.watch.NodeDescriptorProvider");
-                if (nodeProviderClass.isInstance(xValue)) {
+                Class<?> nodeProviderClass = Classes.NODE_DESCRIPTOR_PROVIDER;
+                if (nodeProviderClass != null && nodeProviderClass.isInstance(xValue)) {
                     Method gd = nodeProviderClass.getMethod("getDescriptor");
                     desc = gd.invoke(xValue);
                 }
@@ -623,7 +846,7 @@ public class DebugDataCollector {
             }
             if (desc == null || !isPyDebugValue(desc)) return null;
 
-            Class<?> pyCls = Class.forName("com.jetbrains.python.debugger.PyDebugValue");
+            Class<?> pyCls = Classes.PY_DEBUG_VALUE;
             Method getName = pyCls.getMethod("getName");
             Method getValue = pyCls.getMethod("getValue");
             Object name = getName.invoke(desc);
@@ -646,13 +869,16 @@ public class DebugDataCollector {
 
 
 
-import com.intellij.debugger.ui.breakpoints.JavaExceptionBreakpointType;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.startup.StartupActivity;
 import com.intellij.xdebugger.*;
@@ -660,6 +886,7 @@ import com.intellij.xdebugger.breakpoints.XBreakpoint;
 import com.intellij.xdebugger.frame.*;
 import com.intellij.openapi.components.ServiceManager;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.dell.AIPPChatContentManager;
 import orgdell.LowerPanel;
 import com.intellij.openapi.wm.ToolWindow;
@@ -670,52 +897,47 @@ import org.dell.GenerateInlayForException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class DebugAttacher implements StartupActivity {
     private static final Logger logger = Logger.getInstance(DebugAttacher.class);
-    private static final Map<XDebugSession, DebugAttacher> sessionMap = new HashMap<>();
-    private XDebugProcess currentDebugProcess;
-    private static Project project;
+    private static final long THREAD_DUMP_TIMEOUT_MS = 3000;
+    private static final long COLLECTION_TIMEOUT_MS = 3000;
+    private static final String PAUSE_STORM_NOTIFICATION_GROUP = "DebugAssist";
     public boolean exceptionVisited = false;
-    private int lastExceptionLine = -1;
+    private final PausePipeline pausePipeline = new PausePipeline(this::processPause);
 
     @Override
     public void runActivity(@NotNull Project project) {
         System.out.println("Activity Started");
-        DebugAttacher.project = project;
+        ExceptionBreakpointIndex.getInstance(project);
         attachDebugStartListener(project);
     }
 
-    public void sessionStopped() {
+    public void sessionStopped(@NotNull XDebugProcess debugProcess) {
         System.out.println("[DEBUG] Debug session stopped - cleaning up");
         DebugDataCollector.getInstance().clearDebugData();
 
-        if (currentDebugProcess != null) {
-            ProjectManager.getInstance().getDefaultProject().getMessageBus()
-                    .syncPublisher(XDebuggerManager.TOPIC)
-                    .processStopped(currentDebugProcess);
+        Project project = debugProcess.getSession().getProject();
+        ProjectManager.getInstance().getDefaultProject().getMessageBus()
+                .syncPublisher(XDebuggerManager.TOPIC)
+                .processStopped(debugProcess);
 
-            exceptionVisited = false;
-            lastExceptionLine = -1;
+        exceptionVisited = false;
 
-            ApplicationManager.getApplication().invokeLater(() -> {
-                Editor activeEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
-                if (activeEditor != null) {
-                    GenerateInlayForException.Companion.clearInlays(activeEditor);
-                }
-            });
-        } else {
-            logger.warn("Debug session stopped with no active debug process");
-        }
-        currentDebugProcess = null;
+        ApplicationManager.getApplication().invokeLater(() -> {
+            Editor activeEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+            if (activeEditor != null) {
+                GenerateInlayForException.Companion.clearInlays(activeEditor);
+            }
+        });
     }
 
     private void attachDebugStartListener(Project project) {
-        project.getMessageBus().connect().subscribe(XDebuggerManager.TOPIC, new XDebuggerManagerListener() {
+        project.getMessageBus().connect(project).subscribe(XDebuggerManager.TOPIC, new XDebuggerManagerListener() {
             @Override
             public void processStarted(@NotNull XDebugProcess debugProcess) {
-                currentDebugProcess = debugProcess;
-                sessionMap.put(debugProcess.getSession(), DebugAttacher.this);
+                DebugSessionRegistry.register(debugProcess.getSession(), DebugAttacher.this);
 
                 System.out.println("Debug session started for process: " + debugProcess.getClass().getName());
 
@@ -737,11 +959,8 @@ public class DebugAttacher implements StartupActivity {
     }
 
     private void enableExceptionBreakpoints(Project project) {
-        var breakpoints = XDebuggerManager.getInstance(project).getBreakpointManager().getAllBreakpoints();
-        for (XBreakpoint<?> bp : breakpoints) {
-            if (bp.getType() instanceof JavaExceptionBreakpointType) {
-                bp.setEnabled(true);
-            }
+        for (XBreakpoint<?> bp : ExceptionBreakpointIndex.getInstance(project).getExceptionBreakpoints()) {
+            bp.setEnabled(true);
         }
     }
 
@@ -749,55 +968,145 @@ public class DebugAttacher implements StartupActivity {
         debugProcess.getSession().addSessionListener(new XDebugSessionListener() {
             @Override
             public void sessionPaused() {
-                ApplicationManager.getApplication().runReadAction(() -> {
-                    if (isJavaProcess(debugProcess)) {
-                        handleJavaPaused();
-                    } else if (isPythonProcess(debugProcess)) {
-                        handlePythonPaused();
-                    } else {
-                        System.out.println("Unknown debug process type, skipping special handling.");
-                    }
-                });
+                if (!shouldHandlePause(debugProcess.getSession())) return;
+                pausePipeline.submit(debugProcess.getSession());
             }
 
             @Override
             public void sessionStopped() {
-                sessionMap.remove(currentDebugProcess.getSession());
-                DebugAttacher.this.sessionStopped();
+                DebugAttacher.this.sessionStopped(debugProcess);
             }
         });
     }
 
-    private void handleJavaPaused() {
-        XBreakpoint<?>[] breakpoints = XDebuggerManager.getInstance(project)
-                .getBreakpointManager()
-                .getAllBreakpoints();
+    /**
+     * Pipeline processor for one pause: the decision runs in a short read action, collection runs
+     * without any lock, and the inlay is added on the EDT once the exception has arrived.
+     */
+    private CompletableFuture<?> processPause(PausePipeline.Pause pause) {
+        XDebugSession session = pause.getSession();
+        XDebugProcess process = session.getDebugProcess();
+        boolean collect = ReadAction.compute(() -> {
+            if (isJavaProcess(process)) return handleJavaPaused(session.getProject());
+            if (isPythonProcess(process)) return handlePythonPaused();
+            logger.debug("Unknown debug process type " + process.getClass().getName() + ", skipping special handling");
+            return false;
+        });
+        pause.mark(PausePipeline.Stage.DECIDE);
+        XStackFrame frame = collect ? session.getCurrentStackFrame() : null;
+        if (frame == null) return CompletableFuture.completedFuture(null);
+        return collectExceptionBundle(session, frame, pause).whenComplete((bundle, error) -> pause.mark(PausePipeline.Stage.COLLECT));
+    }
 
-        boolean hasExceptionBreakpoint = false;
-        for (XBreakpoint<?> bp : breakpoints) {
-            if (bp.getType() instanceof JavaExceptionBreakpointType && bp.isEnabled()) {
-                hasExceptionBreakpoint = true;
-                break;
-            }
+    /** Runs on the pipeline worker, so no editor lookup: showExceptionInlay checks the editor on the EDT. */
+    private boolean handleJavaPaused(Project project) {
+        return ExceptionBreakpointIndex.getInstance(project).hasEnabledExceptionBreakpoint();
+    }
+
+    // ---------------- Pause Rate & Exception Dedupe ----------------
+
+    /**
+     * Every pause is counted by the session's PauseRateMonitor, and pauses that sampling skips
+     * during a pause storm are dropped before anything is read from the debuggee. Of the rest, a
+     * fingerprinted exception that was already collected in this session is counted as a repeat
+     * and skipped; it is marked as seen only once its collection succeeds (see
+     * collectExceptionBundle). Repeat counts therefore only include sampled pauses during a storm.
+     */
+    private boolean shouldHandlePause(XDebugSession session) {
+        DebugSessionState state = DebugSessionRegistry.get(session);
+        if (state == null) return true;
+        long now = System.currentTimeMillis();
+        PauseRateMonitor monitor = state.getPauseMonitor();
+        boolean sampled = monitor.onPause(pauseLocation(session), now);
+        if (monitor.takeStormReport(now)) notifyPauseStorm(session, monitor);
+        if (!sampled) return false;
+
+        String fingerprint = DebugDataCollector.exceptionFingerprint(session.getSuspendContext());
+        return fingerprint == null || !countRepeat(state, fingerprint);
+    }
+
+    private static String pauseLocation(XDebugSession session) {
+        XSourcePosition position = session.getCurrentPosition();
+        return position != null ? position.getFile().getPath() + ":" + (position.getLine() + 1) : "<unknown>";
+    }
+
+    private void notifyPauseStorm(XDebugSession session, PauseRateMonitor monitor) {
+        String content = String.format("The debugger is pausing about %.0f times per second (most often at %s). "
+                        + "Debug context is now collected for 1 in %d pauses; consider disabling exception breakpoints "
+                        + "for exceptions that are caught in normal operation.",
+                monitor.getPausesPerSecond(), monitor.getHottestLocation(), PauseRateMonitor.SAMPLE_EVERY);
+        logger.warn("Pause storm in session " + session.getSessionName() + ": " + content);
+        Notifications.Bus.notify(new Notification(PAUSE_STORM_NOTIFICATION_GROUP, "Frequent debugger pauses",
+                content, NotificationType.WARNING), session.getProject());
+    }
+
+    /** Pause-rate monitor of a session, or null once it has left the registry. */
+    public PauseRateMonitor getPauseMonitor(XDebugSession session) {
+        DebugSessionState state = DebugSessionRegistry.get(session);
+        return state != null ? state.getPauseMonitor() : null;
+    }
+
+    /** Records a fingerprint for the session; true the first time it is seen, which also re-arms the inlay. */
+    private boolean isFirstSighting(DebugSessionState state, String fingerprint) {
+        int hits = state.getSeenExceptions().recordHit(fingerprint);
+        if (hits > 1) {
+            logger.debug("Exception " + fingerprint + " seen " + hits + " times; skipping inlay");
+            return false;
         }
+        exceptionVisited = false;
+        return true;
+    }
 
-        if (hasExceptionBreakpoint) {
-            Editor activeEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
-            if (activeEditor != null) {
-                int currentLine = activeEditor.getCaretModel().getLogicalPosition().line + 1;
-                if (currentLine != lastExceptionLine) {
-                    exceptionVisited = false;
-                    lastExceptionLine = currentLine;
-                }
-                getDebugInfoFor("exception");
-            }
+    /** Counts a hit and returns true when the fingerprint was already seen in the session; never marks a new one. */
+    private static boolean countRepeat(DebugSessionState state, String fingerprint) {
+        ExceptionSeenSet seen = state.getSeenExceptions();
+        if (seen.getHits(fingerprint) == 0) return false;
+        int hits = seen.recordHit(fingerprint);
+        logger.debug("Exception " + fingerprint + " seen " + hits + " times; skipping collection");
+        return true;
+    }
+
+    /*
+     * Hooks for the "explain" inlay, keyed by project because that is all the inlay knows. The
+     * inlay label and the "exception" command read the history; GenerateInlayForException passes
+     * the assistant's answer to recordExceptionExplanation once the chat has produced it.
+     */
+
+    /** History of the exception the project's inlay was last shown for: earlier hits and any stored explanation. */
+    public ExceptionHistoryEntry getLastExceptionHistory(Project project) {
+        String fingerprint = lastExceptionFingerprint(project);
+        return fingerprint != null ? ExceptionHistoryStore.getInstance().find(fingerprint) : null;
+    }
+
+    /** Keeps the assistant's explanation of the project's last exception so a later sighting can reuse it. */
+    public void recordExceptionExplanation(Project project, String explanation) {
+        String fingerprint = lastExceptionFingerprint(project);
+        if (fingerprint != null) ExceptionHistoryStore.getInstance().setExplanation(fingerprint, explanation);
+    }
+
+    /** From the project's current session if it has shown an inlay, else from any of its registered sessions. */
+    @Nullable
+    private static String lastExceptionFingerprint(Project project) {
+        XDebugSession current = XDebuggerManager.getInstance(project).getCurrentSession();
+        DebugSessionState state = current != null ? DebugSessionRegistry.get(current) : null;
+        if (state != null && state.getLastExceptionFingerprint() != null) return state.getLastExceptionFingerprint();
+        for (XDebugSession session : DebugSessionRegistry.sessionsOf(project)) {
+            state = DebugSessionRegistry.get(session);
+            if (state != null && state.getLastExceptionFingerprint() != null) return state.getLastExceptionFingerprint();
         }
+        return null;
+    }
+
+    /** Fingerprint -> hit count for a session, most recently hit last. */
+    public Map<String, Integer> getExceptionHits(XDebugSession session) {
+        DebugSessionState state = DebugSessionRegistry.get(session);
+        return state != null ? state.getSeenExceptions().snapshot() : new HashMap<>();
     }
 
-    private void handlePythonPaused() {
+    private boolean handlePythonPaused() {
         // Python debugger does not use JavaExceptionBreakpointType
         // but we can still attempt to collect snapshot, callstack, and exception
-        getDebugInfoFor("exception");
+        return true;
     }
 
     public static Object[] isPaused(Project project) {
@@ -819,110 +1128,191 @@ public class DebugAttacher implements StartupActivity {
         }
     }
 
+    /** The project's current session if it is a paused one of ours, else its first paused registered session. */
+    @Nullable
+    private static XDebugSession pausedSessionOf(Project project) {
+        List<XDebugSession> sessions = DebugSessionRegistry.sessionsOf(project);
+        XDebugSession current = XDebuggerManager.getInstance(project).getCurrentSession();
+        if (current != null && current.isPaused() && sessions.contains(current)) return current;
+        for (XDebugSession session : sessions) {
+            if (session.isPaused()) return session;
+        }
+        return null;
+    }
+
     public static Map<String, Boolean> getDefaultDebugItems() {
         Map<String, Boolean> defaultItems = new HashMap<>();
         defaultItems.put("callstack", false);
         defaultItems.put("snapshot", false);
         defaultItems.put("exception", false);
+        defaultItems.put("threads", false);
+        defaultItems.put("frames", false);
         return defaultItems;
     }
 
-    private static void appendSnapshotItem(StringBuilder builder, SnapshotItem item, int depth) {
-        if (item.getName().equals("value") || item.getName().equals("coder") ||
-            item.getName().equals("hash") || item.getName().equals("hashIsZero")) {
-            return;
-        }
-
-        String indent = "  ".repeat(depth);
-        builder.append(indent).append(item.getName()).append(": ").append(item.getValue());
-        if (!item.getChildren().isEmpty()) {
-            builder.append("\n").append(indent).append("Children:");
-            for (SnapshotItem child : item.getChildren()) {
-                builder.append("\n");
-                appendSnapshotItem(builder, child, depth + 1);
-            }
+    /**
+     * @deprecated picks the first paused session of any open project, which is the wrong one when
+     * several projects are debugging; use {@link #getDebugInfoFor(Project, String)}.
+     */
+    @Deprecated
+    public static String getDebugInfoFor(String command) {
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (pausedSessionOf(project) != null) return getDebugInfoFor(project, command);
         }
+        logger.debug("No paused debug session");
+        return null;
     }
 
-    public static String getDebugInfoFor(String command) {
-        Object[] debugInfo = isPaused(ProjectManager.getInstance().getDefaultProject());
-        XDebugSession session = (XDebugSession) debugInfo[0];
-        XStackFrame frame = (XStackFrame) debugInfo[1];
-        boolean paused = (boolean) debugInfo[2];
+    /**
+     * Renders {@code command}'s debug data for the paused session of the caller's {@code project}.
+     * Waits at most about COLLECTION_TIMEOUT_MS; callers that must not block use
+     * {@link #getDebugInfoForAsync(Project, String)}.
+     */
+    public static String getDebugInfoFor(@NotNull Project project, String command) {
+        return getDebugInfoForAsync(project, command).join();
+    }
 
-        if (session == null || !paused) {
-            System.out.println("No active debug session or not paused");
-            return null;
+    /**
+     * Future form of {@link #getDebugInfoFor(Project, String)}. Every command is bounded by its own
+     * deadline and completes with whatever was collected by then, or null when there is nothing to
+     * render; the future never completes exceptionally.
+     */
+    public static CompletableFuture<String> getDebugInfoForAsync(@NotNull Project project, String command) {
+        XDebugSession session = pausedSessionOf(project);
+        if (session == null) {
+            logger.debug("No paused debug session in " + project.getName());
+            return CompletableFuture.completedFuture(null);
         }
+        XStackFrame frame = session.getCurrentStackFrame();
         if (frame == null) {
-            System.out.println("No current stack frame");
-            return null;
+            logger.debug("No current stack frame");
+            return CompletableFuture.completedFuture(null);
         }
 
+        CompletableFuture<String> rendered;
         try {
-            if ("snapshot".equals(command)) {
-                DebugDataCollector.collectSnapshot(frame, snapshot -> {});
-                Thread.sleep(100);
-                List<SnapshotItem> snapshotItems = DebugDataCollector.getInstance().getSnapshot();
-                if (snapshotItems == null || snapshotItems.isEmpty()) return null;
-                StringBuilder snapshotBuilder = new StringBuilder();
-                for (SnapshotItem item : snapshotItems) {
-                    appendSnapshotItem(snapshotBuilder, item, 0);
+            rendered = render(session, frame, command);
+        } catch (Exception e) {
+            rendered = CompletableFuture.failedFuture(e);
+        }
+        return rendered.exceptionally(e -> {
+            logger.warn("Error collecting debug info: " + e.getMessage());
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<String> render(XDebugSession session, XStackFrame frame, String command) {
+        DebugContextRenderer renderer = DebugContextRenderer.indented();
+        if ("snapshot".equals(command)) {
+            return DebugDataCollector.snapshotAsync(frame, COLLECTION_TIMEOUT_MS).thenApply(item -> {
+                List<SnapshotItem> snapshotItems = (List<SnapshotItem>) item.getData();
+                if (!item.hasData() || snapshotItems.isEmpty()) return null;
+                return renderer.renderSnapshot(snapshotItems);
+            });
+
+        } else if ("callstack".equals(command)) {
+            return DebugDataCollector.stackAsync(session.getDebugProcess(), COLLECTION_TIMEOUT_MS).thenApply(item -> {
+                List<StackItem> stackItems = (List<StackItem>) item.getData();
+                if (!item.hasData() || stackItems.isEmpty()) return null;
+                return renderer.renderStack(stackItems);
+            });
+
+        } else if ("threads".equals(command)) {
+            return DebugDataCollector.threadsAsync(session.getDebugProcess(), THREAD_DUMP_TIMEOUT_MS).thenApply(item -> {
+                if (!item.hasData()) {
+                    logger.debug("Thread dump not available within " + THREAD_DUMP_TIMEOUT_MS + " ms");
+                    return null;
                 }
-                return snapshotBuilder.toString().trim();
-
-            } else if ("callstack".equals(command)) {
-                DebugDataCollector.collectStackItems(session.getDebugProcess(), stack -> {});
-                Thread.sleep(100);
-                List<StackItem> stackItems = DebugDataCollector.getInstance().getCallStack();
-                if (stackItems == null || stackItems.isEmpty()) return null;
-                StringBuilder stackBuilder = new StringBuilder();
-                for (StackItem item : stackItems) {
-                    stackBuilder.append(item.getFunction())
-                            .append(" at ").append(item.getFilePath())
-                            .append(":").append(item.getLine()).append("\n");
+                return renderer.renderThreadDump(
+                        ThreadDumpAggregator.aggregate(((ThreadStacksResult) item.getData()).getThreads()));
+            });
+
+        } else if ("frames".equals(command)) {
+            return DebugDataCollector.framesAsync(session.getDebugProcess(), THREAD_DUMP_TIMEOUT_MS).thenApply(item -> {
+                if (!item.hasData()) return null;
+                return renderer.renderFrameSnapshots((List<FrameSnapshot>) item.getData());
+            });
+
+        } else if ("contention".equals(command)) {
+            return DebugDataCollector.contentionAsync(session.getDebugProcess(), THREAD_DUMP_TIMEOUT_MS).thenApply(item -> {
+                if (!item.hasData()) {
+                    logger.debug("Lock contention not available within " + THREAD_DUMP_TIMEOUT_MS + " ms");
+                    return null;
                 }
-                return stackBuilder.toString().trim();
-
-            } else if ("exception".equals(command)) {
-                DebugAttacher debugAttacher = sessionMap.get(session);
-                DebugDataCollector.collectException(frame, exception -> {
-                    if (exception.hasData()) {
-                        Editor activeEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
-                        if (activeEditor != null) {
-                            int offset = activeEditor.getDocument().getLineStartOffset(
-                                    ((ExceptionDetail) exception.getData()).getLineNumber()
-                            );
-                            ApplicationManager.getApplication().invokeLater(() -> {
-                                WriteCommandAction.runWriteCommandAction(project, () -> {
-                                    ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_CHAT);
-                                    if (toolWindow != null) {
-                                        toolWindow.show();
-                                    }
-                                    LowerPanel lowerPanel = ServiceManager.getService(project, AIPPChatContentManager.class).getLowerPanel();
-                                    GenerateInlayForException.Companion.generateInlay(
-                                            "<<<<<< Ask Code.i to explain Exception >>>>>",
-                                            "exception",
-                                            activeEditor,
-                                            offset,
-                                            lowerPanel,
-                                            debugAttacher
-                                    );
-                                });
-                            });
+                return renderer.renderContention((ContentionReport) item.getData());
+            });
+
+        } else if ("exception".equals(command)) {
+            // Rendering only: history, first-sighting and the inlay belong to the pause that raised it
+            return DebugDataCollector.exceptionAndSnapshotAsync(frame, session.getSuspendContext(), COLLECTION_TIMEOUT_MS)
+                    .thenApply(bundle -> {
+                        DebugContextBundle data = (DebugContextBundle) bundle.getData();
+                        ExceptionDetail ex = data.getException();
+                        if (ex == null || (ex.getMessage() == null && ex.getStackTrace() == null)) {
+                            return null;
                         }
-                    }
+                        // An explanation stored for an earlier sighting is passed along so it need not be asked again
+                        ExceptionHistoryEntry history = data.getFingerprint() != null
+                                ? ExceptionHistoryStore.getInstance().find(data.getFingerprint()) : null;
+                        String rendered = renderer.renderException(ex);
+                        if (history == null || history.getExplanation() == null) return rendered;
+                        return rendered + "\nPrevious explanation (seen " + history.getHitCount() + " times):\n"
+                                + history.getExplanation();
+                    });
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Collects the exception and locals of a paused {@code frame} without blocking. The exception
+     * is recorded in the history, and a first sighting gets the "explain" inlay; the future
+     * completes with the BUNDLE item either way, without waiting for the inlay. Pause handling
+     * only: explicit requests must not count as another hit.
+     */
+    private static CompletableFuture<ContextItem> collectExceptionBundle(XDebugSession session, XStackFrame frame,
+                                                                         PausePipeline.Pause pause) {
+        DebugSessionState state = DebugSessionRegistry.get(session);
+        DebugAttacher debugAttacher = state != null ? state.getAttacher() : null;
+        return DebugDataCollector.exceptionAndSnapshotAsync(frame, session.getSuspendContext(), COLLECTION_TIMEOUT_MS)
+                .whenComplete((bundle, error) -> {
+                    if (bundle == null) return;
+                    ExceptionDetail detail = ((DebugContextBundle) bundle.getData()).getException();
+                    if (detail == null) return;
+                    String fingerprint = ((DebugContextBundle) bundle.getData()).getFingerprint();
+                    ExceptionHistoryStore.getInstance().record(fingerprint, detail, session.getProject().getName());
+                    if (state != null && !debugAttacher.isFirstSighting(state, fingerprint)) return;
+                    if (state != null) state.setLastExceptionFingerprint(fingerprint);
+                    ApplicationManager.getApplication().invokeLater(() -> {
+                        showExceptionInlay(session.getProject(), detail, debugAttacher);
+                        pause.mark(PausePipeline.Stage.PRESENT);
+                    });
                 });
+    }
 
-                ExceptionDetail ex = DebugDataCollector.getInstance().getExceptionDetail();
-                if (ex == null || (ex.getMessage() == null && ex.getStackTrace() == null)) {
-                    return null;
-                }
-                return (ex.getMessage() + "\n" + ex.getStackTrace()).trim();
-            }
-        } catch (Exception e) {
-            System.out.println("Error collecting debug info: " + e.getMessage());
+    /** EDT only. The write command covers just the inlay; editor lookup and the tool window need no write access. */
+    private static void showExceptionInlay(Project project, ExceptionDetail detail, DebugAttacher debugAttacher) {
+        Editor activeEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        if (activeEditor == null) return;
+        int line = detail.getLineNumber();
+        if (line < 0 || line >= activeEditor.getDocument().getLineCount()) return;
+        int offset = activeEditor.getDocument().getLineStartOffset(line);
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_CHAT);
+        if (toolWindow != null) {
+            toolWindow.show();
         }
-        return null;
+        LowerPanel lowerPanel = ServiceManager.getService(project, AIPPChatContentManager.class).getLowerPanel();
+        ExceptionHistoryEntry history = debugAttacher != null ? debugAttacher.getLastExceptionHistory(project) : null;
+        String label = history != null && history.getHitCount() > 1
+                ? "<<<<<< Ask Code.i to explain Exception (seen " + history.getHitCount() + " times) >>>>>"
+                : "<<<<<< Ask Code.i to explain Exception >>>>>";
+        WriteCommandAction.runWriteCommandAction(project, () -> GenerateInlayForException.Companion.generateInlay(
+                label,
+                "exception",
+                activeEditor,
+                offset,
+                lowerPanel,
+                debugAttacher
+        ));
     }
 }